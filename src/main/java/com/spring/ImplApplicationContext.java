@@ -1,15 +1,22 @@
 package com.spring;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.spring.aop.AopProxy;
+import com.spring.aop.limit.Limiter;
+import com.spring.aop.limit.LimiterRegistry;
+import com.spring.scheduling.EnableScheduling;
+import com.spring.scheduling.ScheduledTask;
+import com.spring.scheduling.TaskScheduler;
 import org.reflections.Reflections;
 
 /**
  * Spring IoC 容器实现
  */
-public class ImplApplicationContext {
+public class ImplApplicationContext implements AutoCloseable {
 
     private Class configClass;
 
@@ -20,15 +27,33 @@ public class ImplApplicationContext {
     // 三级缓存：单例工厂对象
     private Map<String, ObjectFactory> singletonFactories = new ConcurrentHashMap<>();
 
-    // 正在创建中的 Bean 名称集合
+    // 正在创建中的 Bean 名称集合，只在持有 singletonLock 时访问
     private Set<String> singletonsCurrentlyInCreation = new HashSet<>();
 
+    // 创建 Bean 和增量刷新共用的锁
+    private final Object singletonLock = new Object();
+    // 增量刷新进行中，此时 getBean 不走无锁的快速路径
+    private volatile boolean refreshing;
+    // 增量刷新期间新 Bean 的定时任务，刷新成功后才启动
+    private List<ScheduledTask> pendingScheduledTasks;
+
     // BeanPostProcessor 列表
     private List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
     // Bean 定义信息的缓存
     private Map<String, Class<?>> beanDefinitionMap = new ConcurrentHashMap<>();
 
+    // 依赖关系：Bean 名称 -> 依赖它的 Bean 名称
+    private Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>();
+    // 依赖关系：Bean 名称 -> 它所依赖的 Bean 名称
+    private Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>();
+
+    // 本容器中代理使用的限流器
+    private final LimiterRegistry limiterRegistry = new LimiterRegistry();
+
+    // 定时任务调度器，发现第一个 @Scheduled 方法时创建
+    private TaskScheduler taskScheduler;
+
     public ImplApplicationContext(Class configClass) {
         this.configClass = configClass;
 
@@ -41,21 +66,15 @@ public class ImplApplicationContext {
 
     private void scanComponents() {
         ComponentScan componentScanAnnotation = (ComponentScan) configClass.getDeclaredAnnotation(ComponentScan.class);
-        String path = componentScanAnnotation.value().replace(".", "/");
+        String basePackage = componentScanAnnotation.value();
 
-        // 使用 Reflections 扫描指定包下的所有类
-        Reflections reflections = new Reflections(path);
+        // 使用 Reflections 扫描指定包下的所有类，包名需保持点分形式，否则多级包名扫描不到任何类
+        Reflections reflections = new Reflections(basePackage);
         Set<Class<?>> components = reflections.getTypesAnnotatedWith(Component.class);
 
         // 注册 Bean 定义
         for (Class<?> cls : components) {
-            Component component = cls.getAnnotation(Component.class);
-            String beanName = component.value();
-            if (beanName.isEmpty()) {
-                // 如果没有指定 bean 名称，使用类名首字母小写作为 bean 名称
-                beanName = Character.toLowerCase(cls.getSimpleName().charAt(0)) +
-                        cls.getSimpleName().substring(1);
-            }
+            String beanName = resolveBeanName(cls);
             beanDefinitionMap.put(beanName, cls);
 
             // 注册 BeanPostProcessor
@@ -70,6 +89,20 @@ public class ImplApplicationContext {
         }
     }
 
+    /**
+     * 获取组件的 Bean 名称
+     */
+    private String resolveBeanName(Class<?> cls) {
+        Component component = cls.getAnnotation(Component.class);
+        String beanName = component.value();
+        if (beanName.isEmpty()) {
+            // 如果没有指定 bean 名称，使用类名首字母小写作为 bean 名称
+            beanName = Character.toLowerCase(cls.getSimpleName().charAt(0)) +
+                    cls.getSimpleName().substring(1);
+        }
+        return beanName;
+    }
+
     /**
      * 创建所有单例 Bean
      */
@@ -80,6 +113,20 @@ public class ImplApplicationContext {
     }
 
     public Object getBean(String beanName) {
+        // 已创建完成的单例无需加锁
+        if (!refreshing) {
+            Object singleton = singletonObjects.get(beanName);
+            if (singleton != null) {
+                return singleton;
+            }
+        }
+        // 创建过程和增量刷新互斥，刷新期间的调用会等待刷新完成
+        synchronized (singletonLock) {
+            return doGetBean(beanName);
+        }
+    }
+
+    private Object doGetBean(String beanName) {
         try {
             // 先尝试从一级缓存获取完整的 Bean
             Object singleton = singletonObjects.get(beanName);
@@ -123,19 +170,18 @@ public class ImplApplicationContext {
                 // 实例化 Bean
                 Object bean = doCreateBean(beanClass);
 
-                // 添加到三级缓存
-                final Object finalBean = bean;
+                // 添加到三级缓存，循环依赖拿到的早期引用同样经过 AOP 代理
+                final Object rawBean = bean;
                 singletonFactories.put(beanName, new ObjectFactory() {
                     @Override
                     public Object getObject() {
-                        // 这里可以进行 AOP 代理
-                        return finalBean;
+                        return wrapIfNecessary(rawBean);
                     }
                 });
 
                 // 属性注入（可能触发循环依赖）
                 try {
-                    populateBean(bean);
+                    populateBean(bean, beanName);
                 } catch (Exception e) {
                     throw new RuntimeException("Error populating bean: " + beanName, e);
                 }
@@ -147,12 +193,32 @@ public class ImplApplicationContext {
                     throw new RuntimeException("Error initializing bean: " + beanName, e);
                 }
 
+                // 已经作为早期代理注入给其他 Bean 时，必须使用同一个代理
+                Object earlyReference = earlySingletonObjects.get(beanName);
+                if (earlyReference != null && earlyReference != rawBean) {
+                    if (bean != rawBean) {
+                        throw new RuntimeException("Bean '" + beanName + "' has been injected into other beans as "
+                                + "an early proxy, but was replaced by a BeanPostProcessor");
+                    }
+                    bean = earlyReference;
+                } else {
+                    bean = wrapIfNecessary(bean);
+                }
+
                 // 将完整的 Bean 放入一级缓存
                 singletonObjects.put(beanName, bean);
                 // 从二级和三级缓存中移除
                 earlySingletonObjects.remove(beanName);
                 singletonFactories.remove(beanName);
 
+                // Bean 创建成功后才注册 @Scheduled 方法，注册失败时丢弃该 Bean
+                try {
+                    registerScheduledMethods(rawBean, bean, beanName);
+                } catch (Exception e) {
+                    singletonObjects.remove(beanName);
+                    throw new RuntimeException("Error registering scheduled tasks: " + beanName, e);
+                }
+
                 return bean;
             } catch (Exception e) {
                 throw new RuntimeException("Error creating bean: " + beanName, e);
@@ -173,9 +239,10 @@ public class ImplApplicationContext {
      * 属性注入
      * 
      * @param bean
+     * @param beanName
      * @throws Exception
      */
-    private void populateBean(Object bean) throws Exception {
+    private void populateBean(Object bean, String beanName) throws Exception {
         // 使用反射获取字段
         Field[] fields = bean.getClass().getDeclaredFields();
         // 遍历字段，查找是否有 @Autowired 注解
@@ -202,9 +269,236 @@ public class ImplApplicationContext {
                         // 如果对应的 Bean 不存在，则抛出异常
                         throw new RuntimeException("No bean found with name '" + field.getName() + "'");
                     }
+                    if (!field.getType().isInstance(value)) {
+                        throw new RuntimeException("Bean '" + field.getName() + "' of type " + value.getClass().getName()
+                                + " cannot be injected into field " + field
+                                + (Proxy.isProxyClass(value.getClass())
+                                        ? "; the bean is an AOP proxy, declare the field with one of its interfaces"
+                                        : ""));
+                    }
                     // 将字段注入到 bean 中
                     field.set(bean, value);
+                    // 记录依赖关系，用于增量刷新
+                    registerDependentBean(field.getName(), beanName);
+                }
+            }
+        }
+    }
+
+    private void registerDependentBean(String beanName, String dependentBeanName) {
+        dependentBeanMap.computeIfAbsent(beanName, k -> new LinkedHashSet<>()).add(dependentBeanName);
+        dependenciesForBeanMap.computeIfAbsent(dependentBeanName, k -> new LinkedHashSet<>()).add(beanName);
+    }
+
+    /**
+     * 增量刷新：用变更后的类替换对应的 Bean 定义，并只重建这些 Bean
+     * 类上 @Component 的名称与已有 Bean 相同即视为替换，否则注册为新 Bean；刷新失败时恢复原来的 Bean 定义
+     *
+     * @param changedClasses 变更的类
+     * @return 按依赖顺序重新创建的 Bean 名称
+     */
+    public List<String> refresh(Collection<Class<?>> changedClasses) {
+        synchronized (singletonLock) {
+            Map<String, Class<?>> previousDefinitions = new HashMap<>();
+            Set<String> beanNames = new LinkedHashSet<>();
+            for (Class<?> cls : changedClasses) {
+                if (!cls.isAnnotationPresent(Component.class)) {
+                    throw new IllegalArgumentException("Class is not a component: " + cls.getName());
+                }
+                beanNames.add(resolveBeanName(cls));
+            }
+            for (Class<?> cls : changedClasses) {
+                String beanName = resolveBeanName(cls);
+                if (!previousDefinitions.containsKey(beanName)) {
+                    previousDefinitions.put(beanName, beanDefinitionMap.get(beanName));
+                }
+                beanDefinitionMap.put(beanName, cls);
+            }
+            try {
+                return refreshBeans(beanNames);
+            } catch (RuntimeException e) {
+                for (Map.Entry<String, Class<?>> entry : previousDefinitions.entrySet()) {
+                    if (entry.getValue() == null) {
+                        beanDefinitionMap.remove(entry.getKey());
+                    } else {
+                        beanDefinitionMap.put(entry.getKey(), entry.getValue());
+                    }
                 }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 增量刷新：按记录的 @Autowired 依赖关系，只重建指定的 Bean，并重新注入到依赖它们的 Bean 中
+     * 先创建全部新 Bean 并校验重新注入，全部成功后才替换旧 Bean、切换定时任务；
+     * 任一步骤失败时恢复旧的单例、依赖记录和限流器，旧的定时任务不受影响
+     * 其余单例保持不变；BeanPostProcessor 不会被替换
+     * <p>
+     * 重新注入直接通过反射给依赖方的字段赋值，对正在使用依赖方的其他线程没有 happens-before 保证：
+     * 它们可能继续看到旧 Bean，也可能看到字段尚未初始化完整的新 Bean。
+     * 会被并发访问的依赖方应将 @Autowired 字段声明为 volatile，此时反射赋值即为 volatile 写
+     *
+     * @param beanNames 需要重建的 Bean 名称
+     * @return 按依赖顺序重新创建的 Bean 名称
+     */
+    public List<String> refreshBeans(Collection<String> beanNames) {
+        synchronized (singletonLock) {
+            Set<String> changed = new LinkedHashSet<>(beanNames);
+            for (String beanName : changed) {
+                if (!beanDefinitionMap.containsKey(beanName)) {
+                    throw new BeanCreationException("Bean not found: " + beanName, null);
+                }
+            }
+
+            // 依赖被重建、自身不重建的 Bean 只需要重新注入
+            Set<String> dependents = new LinkedHashSet<>();
+            for (String beanName : changed) {
+                Set<String> set = dependentBeanMap.get(beanName);
+                if (set != null) {
+                    dependents.addAll(set);
+                }
+            }
+            dependents.removeAll(changed);
+
+            // 被依赖的 Bean 先创建
+            List<String> order = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+            for (String beanName : changed) {
+                sortByDependencies(beanName, changed, visited, order);
+            }
+
+            // 保存现场，失败时回滚
+            Map<String, Object> previousSingletons = new HashMap<>();
+            for (String beanName : order) {
+                Object singleton = singletonObjects.get(beanName);
+                if (singleton != null) {
+                    previousSingletons.put(beanName, singleton);
+                }
+            }
+            Map<String, Set<String>> previousDependents = copyDependencies(dependentBeanMap);
+            Map<String, Set<String>> previousDependencies = copyDependencies(dependenciesForBeanMap);
+            Map<String, Limiter> previousLimiters = limiterRegistry.snapshot();
+
+            List<ScheduledTask> preparedTasks = new ArrayList<>();
+            List<PendingInjection> injections;
+            refreshing = true;
+            pendingScheduledTasks = preparedTasks;
+            try {
+                for (String beanName : order) {
+                    removeSingleton(beanName);
+                }
+                for (String beanName : order) {
+                    getBean(beanName);
+                }
+                injections = new ArrayList<>();
+                for (String dependent : dependents) {
+                    prepareReinjection(dependent, changed, injections);
+                }
+            } catch (RuntimeException e) {
+                for (String beanName : order) {
+                    singletonObjects.remove(beanName);
+                    earlySingletonObjects.remove(beanName);
+                    singletonFactories.remove(beanName);
+                }
+                singletonObjects.putAll(previousSingletons);
+                restoreDependencies(dependentBeanMap, previousDependents);
+                restoreDependencies(dependenciesForBeanMap, previousDependencies);
+                limiterRegistry.restore(previousLimiters);
+                throw e;
+            } finally {
+                pendingScheduledTasks = null;
+                refreshing = false;
+            }
+
+            // 全部成功，切换定时任务并重新注入
+            if (taskScheduler != null) {
+                for (String beanName : order) {
+                    taskScheduler.cancelScheduledTasks(beanName);
+                }
+                taskScheduler.start(preparedTasks);
+            }
+            // 非 volatile 字段的赋值不保证对其他线程可见，见方法注释
+            for (PendingInjection injection : injections) {
+                try {
+                    injection.field.set(injection.target, injection.value);
+                } catch (IllegalAccessException e) {
+                    throw new BeanCreationException("Error re-injecting bean field: " + injection.field, e);
+                }
+            }
+            return order;
+        }
+    }
+
+    private void sortByDependencies(String beanName, Set<String> changed, Set<String> visited, List<String> order) {
+        // 循环依赖由三级缓存处理，这里只需避免重复访问
+        if (!visited.add(beanName)) {
+            return;
+        }
+        Set<String> dependencies = dependenciesForBeanMap.get(beanName);
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                if (changed.contains(dependency)) {
+                    sortByDependencies(dependency, changed, visited, order);
+                }
+            }
+        }
+        order.add(beanName);
+    }
+
+    private static Map<String, Set<String>> copyDependencies(Map<String, Set<String>> source) {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : source.entrySet()) {
+            copy.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private static void restoreDependencies(Map<String, Set<String>> target, Map<String, Set<String>> snapshot) {
+        target.clear();
+        target.putAll(snapshot);
+    }
+
+    /**
+     * 移除单例及其依赖记录，定时任务在刷新成功后才取消
+     * 依赖它的 Bean 的记录保留，重建后重新注入时使用
+     */
+    private void removeSingleton(String beanName) {
+        singletonObjects.remove(beanName);
+        earlySingletonObjects.remove(beanName);
+        singletonFactories.remove(beanName);
+        Set<String> dependencies = dependenciesForBeanMap.remove(beanName);
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                Set<String> set = dependentBeanMap.get(dependency);
+                if (set != null) {
+                    set.remove(beanName);
+                }
+            }
+        }
+    }
+
+    /**
+     * 找出需要重新注入重建后 Bean 的字段，并校验类型，此时还不修改任何字段
+     */
+    private void prepareReinjection(String beanName, Set<String> changed, List<PendingInjection> injections) {
+        Object bean = singletonObjects.get(beanName);
+        if (bean == null) {
+            return;
+        }
+        // 代理对象需要注入到被代理的目标对象上
+        if (Proxy.isProxyClass(bean.getClass()) && Proxy.getInvocationHandler(bean) instanceof AopProxy) {
+            bean = ((AopProxy) Proxy.getInvocationHandler(bean)).getTarget();
+        }
+        for (Field field : bean.getClass().getDeclaredFields()) {
+            if (field.isAnnotationPresent(Autowired.class) && changed.contains(field.getName())) {
+                Object value = getBean(field.getName());
+                if (!field.getType().isInstance(value)) {
+                    throw new BeanCreationException("Refreshed bean '" + field.getName() + "' of type "
+                            + value.getClass().getName() + " cannot be re-injected into field " + field, null);
+                }
+                field.setAccessible(true);
+                injections.add(new PendingInjection(bean, field, value));
             }
         }
     }
@@ -239,6 +533,87 @@ public class ImplApplicationContext {
         return current;
     }
 
+    /**
+     * 方法上有 @RateLimited / @Bulkhead 等注解时，使用 AopProxy 创建 JDK 动态代理
+     * 带注解的方法没有声明在接口上时直接失败，避免注解被静默忽略
+     */
+    private Object wrapIfNecessary(Object bean) {
+        Class<?> beanClass = bean.getClass();
+        if (Proxy.isProxyClass(beanClass) || !AopProxy.isProxyCandidate(beanClass)) {
+            return bean;
+        }
+        AopProxy.checkProxyable(beanClass);
+        // 只匹配追踪切点、没有实现接口的 Bean 不代理
+        if (AopProxy.getAllInterfaces(beanClass).length == 0) {
+            return bean;
+        }
+        // 增量刷新时同名限流器按新的注解配置重建
+        return new AopProxy(bean, limiterRegistry, refreshing).createProxy();
+    }
+
+    /**
+     * 获取本容器的限流器注册表，用于读取限流器和舱壁的运行时指标
+     */
+    public LimiterRegistry getLimiterRegistry() {
+        return limiterRegistry;
+    }
+
+    /**
+     * 注册 Bean 中的 @Scheduled 方法，调度器按配置类上的 @EnableScheduling 创建
+     * 增量刷新期间只创建任务，刷新成功后再启动
+     */
+    private void registerScheduledMethods(Object bean, Object exposedBean, String beanName) {
+        if (!TaskScheduler.hasScheduledMethods(bean.getClass())) {
+            return;
+        }
+        if (taskScheduler == null) {
+            @SuppressWarnings("unchecked")
+            EnableScheduling config = (EnableScheduling) configClass.getAnnotation(EnableScheduling.class);
+            taskScheduler = TaskScheduler.of(config);
+        }
+        List<ScheduledTask> prepared = taskScheduler.prepareScheduledMethods(bean, exposedBean, beanName);
+        if (pendingScheduledTasks != null) {
+            pendingScheduledTasks.addAll(prepared);
+        } else {
+            taskScheduler.start(prepared);
+        }
+    }
+
+    /**
+     * 获取定时任务调度器，没有 @Scheduled 方法时返回 null
+     */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    /**
+     * 关闭容器，取消所有定时任务
+     */
+    @Override
+    public void close() {
+        synchronized (singletonLock) {
+            if (taskScheduler != null) {
+                taskScheduler.close();
+                taskScheduler = null;
+            }
+        }
+    }
+
+    /**
+     * 增量刷新时待重新注入的字段
+     */
+    private static class PendingInjection {
+        final Object target;
+        final Field field;
+        final Object value;
+
+        PendingInjection(Object target, Field field, Object value) {
+            this.target = target;
+            this.field = field;
+            this.value = value;
+        }
+    }
+
     // 用于解决循环依赖的工厂接口
     interface ObjectFactory {
         Object getObject() throws Exception;
@@ -1,10 +1,26 @@
 package com.spring.aop;
 
+import com.spring.aop.limit.Bulkhead;
+import com.spring.aop.limit.ConcurrencyBulkhead;
+import com.spring.aop.limit.Limiter;
+import com.spring.aop.limit.LimiterRegistry;
+import com.spring.aop.limit.RateLimited;
+import com.spring.aop.limit.TokenBucketRateLimiter;
+import com.spring.aop.trace.MethodTracer;
+import com.spring.aop.trace.Traced;
+
+import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AOP 代理创建器
@@ -14,10 +30,27 @@ public class AopProxy implements InvocationHandler {
 
     private final Object target;
     private final List<AspectInfo> aspects;
+    private final LimiterRegistry limiterRegistry;
+    // 同名限流器配置不同时是否替换，容器增量刷新重建 Bean 时为 true
+    private final boolean replaceLimiters;
+    // 方法对应的限流器和追踪信息缓存
+    private final Map<Method, MethodMetadata> methodCache = new ConcurrentHashMap<>();
+
+    private static final Limiter[] NO_LIMITERS = new Limiter[0];
 
     public AopProxy(Object target) {
+        this(target, LimiterRegistry.getSharedInstance());
+    }
+
+    public AopProxy(Object target, LimiterRegistry limiterRegistry) {
+        this(target, limiterRegistry, false);
+    }
+
+    public AopProxy(Object target, LimiterRegistry limiterRegistry, boolean replaceLimiters) {
         this.target = target;
         this.aspects = new ArrayList<>();
+        this.limiterRegistry = limiterRegistry;
+        this.replaceLimiters = replaceLimiters;
     }
 
     /**
@@ -28,28 +61,199 @@ public class AopProxy implements InvocationHandler {
     }
 
     /**
-     * 创建代理对象
+     * 获取被代理的目标对象
+     */
+    public Object getTarget() {
+        return target;
+    }
+
+    /**
+     * 创建代理对象，代理目标类及其父类实现的所有接口
+     * 接口方法的限流器和追踪信息在这里提前解析，配置冲突会在创建代理时暴露
      */
     public Object createProxy() {
+        Class<?>[] interfaces = getAllInterfaces(target.getClass());
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                methodCache.computeIfAbsent(method, this::resolveMetadata);
+            }
+        }
         return Proxy.newProxyInstance(
                 target.getClass().getClassLoader(),
-                target.getClass().getInterfaces(),
+                interfaces,
                 this);
     }
 
+    /**
+     * 收集类及其父类实现的所有接口，包括接口继承的接口
+     */
+    public static Class<?>[] getAllInterfaces(Class<?> cls) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> current = cls; current != null; current = current.getSuperclass()) {
+            collectInterfaces(current, interfaces);
+        }
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    private static void collectInterfaces(Class<?> cls, Set<Class<?>> interfaces) {
+        for (Class<?> type : cls.getInterfaces()) {
+            if (interfaces.add(type)) {
+                collectInterfaces(type, interfaces);
+            }
+        }
+    }
+
+    /**
+     * 判断类是否需要代理：有限流注解的方法，或需要追踪的方法
+     */
+    public static boolean isProxyCandidate(Class<?> beanClass) {
+        return !getAnnotatedMethods(beanClass, RateLimited.class, Bulkhead.class).isEmpty()
+                || isTraceCandidate(beanClass);
+    }
+
+    /**
+     * 检查注解能否被 JDK 动态代理拦截，不能拦截时抛出 IllegalStateException，避免注解被静默忽略
+     */
+    public static void checkProxyable(Class<?> beanClass) {
+        Class<?>[] interfaces = getAllInterfaces(beanClass);
+        checkLimitable(beanClass, interfaces);
+        checkTraceable(beanClass, interfaces);
+    }
+
+    /**
+     * 带有 @RateLimited、@Bulkhead 的方法必须声明在目标类实现的某个接口上
+     */
+    private static void checkLimitable(Class<?> beanClass, Class<?>[] interfaces) {
+        for (Method method : getAnnotatedMethods(beanClass, RateLimited.class, Bulkhead.class)) {
+            if (!isDeclaredOnInterface(method, interfaces)) {
+                throw new IllegalStateException("Method " + beanClass.getName() + "." + method.getName()
+                        + " uses @RateLimited/@Bulkhead but is not declared on any interface of "
+                        + beanClass.getName() + "; declare it on an interface so the proxy can intercept it");
+            }
+        }
+    }
+
+    /**
+     * 判断类中是否有需要追踪的方法：类或方法上有 @Traced，或方法匹配 MethodTracer 的追踪切点
+     */
+    private static boolean isTraceCandidate(Class<?> beanClass) {
+        if (beanClass.isAnnotationPresent(Traced.class) || !getAnnotatedMethods(beanClass, Traced.class).isEmpty()) {
+            return true;
+        }
+        for (Method method : beanClass.getMethods()) {
+            if (method.getDeclaringClass() != Object.class && MethodTracer.matchesPointcut(method, beanClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类上的 @Traced 要求类实现接口，方法上的 @Traced 要求方法声明在接口上
+     * 只匹配追踪切点的类不做要求，没有接口时不追踪
+     */
+    private static void checkTraceable(Class<?> beanClass, Class<?>[] interfaces) {
+        if (beanClass.isAnnotationPresent(Traced.class) && interfaces.length == 0) {
+            throw new IllegalStateException(beanClass.getName() + " is annotated with @Traced but implements "
+                    + "no interface; JDK dynamic proxies can only trace interface methods");
+        }
+        for (Method method : getAnnotatedMethods(beanClass, Traced.class)) {
+            if (!isDeclaredOnInterface(method, interfaces)) {
+                throw new IllegalStateException("Method " + beanClass.getName() + "." + method.getName()
+                        + " uses @Traced but is not declared on any interface of " + beanClass.getName()
+                        + "; declare it on an interface so the proxy can trace it");
+            }
+        }
+    }
+
+    /**
+     * 获取类及其父类中带有任一指定注解的方法，包括非 public 方法
+     */
+    @SafeVarargs
+    private static List<Method> getAnnotatedMethods(Class<?> beanClass, Class<? extends Annotation>... types) {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> current = beanClass; current != null && current != Object.class;
+                current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                for (Class<? extends Annotation> type : types) {
+                    if (method.isAnnotationPresent(type)) {
+                        methods.add(method);
+                        break;
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static boolean isDeclaredOnInterface(Method method, Class<?>[] interfaces) {
+        for (Class<?> type : interfaces) {
+            try {
+                type.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                // 继续查找下一个接口
+            }
+        }
+        return false;
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodMetadata metadata = methodCache.get(method);
+        if (metadata == null) {
+            metadata = methodCache.computeIfAbsent(method, this::resolveMetadata);
+        }
+        if (metadata.traceId < 0) {
+            return invokeWithLimiters(metadata.limiters, method, args);
+        }
+
+        // 追踪放在最外层，被限流拒绝和等待的耗时也会被记录
+        long start = MethodTracer.enter(metadata.traceId);
+        try {
+            return invokeWithLimiters(metadata.limiters, method, args);
+        } finally {
+            MethodTracer.exit(metadata.traceId, start);
+        }
+    }
+
+    private Object invokeWithLimiters(Limiter[] limiters, Method method, Object[] args) throws Throwable {
+        if (limiters.length == 0) {
+            return invokeWithAdvice(method, args);
+        }
+
+        // 先限流再进入舱壁，按相反顺序归还许可
+        int acquired = 0;
+        try {
+            for (Limiter limiter : limiters) {
+                limiter.acquire();
+                acquired++;
+            }
+            return invokeWithAdvice(method, args);
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                limiters[i].release();
+            }
+        }
+    }
+
+    private Object invokeWithAdvice(Method method, Object[] args) throws Throwable {
         // 如果存在环绕通知，优先处理
         for (AspectInfo aspect : aspects) {
-            if (aspect.type == AdviceType.AROUND && PointcutParser.matches(aspect.pointcut, method)) {
-                return aspect.adviceMethod.invoke(aspect.aspect,
-                        new ProceedingJoinPoint(target, method, args));
+            if (aspect.type == AdviceType.AROUND && PointcutParser.matches(aspect.pointcut, method, target.getClass())) {
+                try {
+                    return aspect.adviceMethod.invoke(aspect.aspect,
+                            new ProceedingJoinPoint(target, method, args));
+                } catch (InvocationTargetException e) {
+                    // 环绕通知抛出的异常（通常来自 proceed）原样抛给调用方
+                    throw e.getTargetException();
+                }
             }
         }
 
         // 执行前置通知
         for (AspectInfo aspect : aspects) {
-            if (aspect.type == AdviceType.BEFORE && PointcutParser.matches(aspect.pointcut, method)) {
+            if (aspect.type == AdviceType.BEFORE && PointcutParser.matches(aspect.pointcut, method, target.getClass())) {
                 aspect.adviceMethod.invoke(aspect.aspect);
             }
         }
@@ -58,14 +262,18 @@ public class AopProxy implements InvocationHandler {
         Throwable throwable = null;
 
         try {
-            // 执行目标方法
-            result = method.invoke(target, args);
+            // 执行目标方法，反射调用包装的 InvocationTargetException 需要拆开，保持目标方法的异常类型
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
         } catch (Throwable t) {
             throwable = t;
             // 执行异常通知
             for (AspectInfo aspect : aspects) {
                 if (aspect.type == AdviceType.AFTER_THROWING &&
-                        PointcutParser.matches(aspect.pointcut, method)) {
+                        PointcutParser.matches(aspect.pointcut, method, target.getClass())) {
                     aspect.adviceMethod.invoke(aspect.aspect, t);
                 }
             }
@@ -73,7 +281,7 @@ public class AopProxy implements InvocationHandler {
         } finally {
             // 执行后置通知
             for (AspectInfo aspect : aspects) {
-                if (aspect.type == AdviceType.AFTER && PointcutParser.matches(aspect.pointcut, method)) {
+                if (aspect.type == AdviceType.AFTER && PointcutParser.matches(aspect.pointcut, method, target.getClass())) {
                     aspect.adviceMethod.invoke(aspect.aspect);
                 }
             }
@@ -82,6 +290,80 @@ public class AopProxy implements InvocationHandler {
         return result;
     }
 
+    /**
+     * 解析方法上的 @RateLimited、@Bulkhead 和 @Traced 注解
+     * 接口方法上没有注解时，查找目标类中的实现方法
+     */
+    private MethodMetadata resolveMetadata(Method method) {
+        Method targetMethod = findTargetMethod(method);
+        int traceId = -1;
+        if (target.getClass().isAnnotationPresent(Traced.class)
+                || findAnnotation(method, targetMethod, Traced.class) != null
+                || MethodTracer.matchesPointcut(targetMethod, target.getClass())) {
+            // 使用完整签名，重载方法和不同包下的同名类各自有独立的 ID
+            traceId = MethodTracer.registerMethod(methodSignature(method));
+        }
+        return new MethodMetadata(resolveLimiters(method, targetMethod), traceId);
+    }
+
+    /**
+     * 解析方法上的 @RateLimited 和 @Bulkhead 注解
+     */
+    private Limiter[] resolveLimiters(Method method, Method targetMethod) {
+        String defaultName = methodSignature(method);
+
+        List<Limiter> limiters = new ArrayList<>(2);
+        RateLimited rateLimited = findAnnotation(method, targetMethod, RateLimited.class);
+        if (rateLimited != null) {
+            String name = rateLimited.name().isEmpty() ? defaultName + "#rateLimiter" : rateLimited.name();
+            limiters.add(limiterRegistry.register(TokenBucketRateLimiter.of(name, rateLimited), replaceLimiters));
+        }
+        Bulkhead bulkhead = findAnnotation(method, targetMethod, Bulkhead.class);
+        if (bulkhead != null) {
+            String name = bulkhead.name().isEmpty() ? defaultName + "#bulkhead" : bulkhead.name();
+            limiters.add(limiterRegistry.register(ConcurrencyBulkhead.of(name, bulkhead), replaceLimiters));
+        }
+        return limiters.isEmpty() ? NO_LIMITERS : limiters.toArray(new Limiter[0]);
+    }
+
+    /**
+     * 方法签名：目标类全限定名.方法名(参数类型)，用作限流器的默认名称和追踪的方法名
+     */
+    private String methodSignature(Method method) {
+        StringJoiner parameters = new StringJoiner(",", "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            parameters.add(type.getTypeName());
+        }
+        return target.getClass().getName() + "." + method.getName() + parameters;
+    }
+
+    private Method findTargetMethod(Method method) {
+        try {
+            return target.getClass().getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return method;
+        }
+    }
+
+    private static <A extends Annotation> A findAnnotation(Method method, Method targetMethod, Class<A> type) {
+        A annotation = targetMethod.getAnnotation(type);
+        return annotation != null ? annotation : method.getAnnotation(type);
+    }
+
+    /**
+     * 方法的代理元数据
+     */
+    private static class MethodMetadata {
+        final Limiter[] limiters;
+        // 追踪用的方法 ID，不追踪时为 -1
+        final int traceId;
+
+        MethodMetadata(Limiter[] limiters, int traceId) {
+            this.limiters = limiters;
+            this.traceId = traceId;
+        }
+    }
+
     /**
      * 切面信息类
      */
@@ -1,6 +1,14 @@
 package com.spring.aop;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -9,39 +17,216 @@ import java.util.regex.Pattern;
  */
 public class PointcutParser {
 
+    // 解析后的切点缓存，通知在每次调用时都会匹配
+    private static final Map<String, Pointcut> CACHE = new ConcurrentHashMap<>();
+
     /**
      * 解析切点表达式
      * 支持格式：
      * - execution(* com.example.*.*(..))
      * - execution(public * com.example.UserService.*(..))
+     * - execution(* com.example..*.find*(java.lang.String, ..))
+     *
+     * 类型中 * 匹配一段名称，.. 匹配任意层包；参数中 .. 匹配任意个参数
+     * 不含 . 的类型按简单类名匹配，如 String、int
      */
     public static boolean matches(String pointcutExpression, Method method) {
+        return matches(pointcutExpression, method, method.getDeclaringClass());
+    }
+
+    /**
+     * 按目标类匹配切点，声明类型可以是目标类或它的父类、接口中声明了该方法的任一类型
+     */
+    public static boolean matches(String pointcutExpression, Method method, Class<?> targetClass) {
+        return CACHE.computeIfAbsent(pointcutExpression, PointcutParser::parse).matches(method, targetClass);
+    }
+
+    /**
+     * 校验切点表达式，格式错误时抛出 IllegalArgumentException
+     */
+    public static void validate(String pointcutExpression) {
+        CACHE.computeIfAbsent(pointcutExpression, PointcutParser::parse);
+    }
+
+    private static Pointcut parse(String expression) {
+        String text = expression.trim();
+        if (!text.startsWith("execution(") || !text.endsWith(")")) {
+            throw new IllegalArgumentException("Unsupported pointcut expression: " + expression);
+        }
         // 移除 execution() 部分
-        String pattern = pointcutExpression.substring(pointcutExpression.indexOf("(") + 1,
-                pointcutExpression.length() - 1);
+        String pattern = text.substring("execution(".length(), text.length() - 1).trim();
+
+        int open = pattern.indexOf('(');
+        if (open < 0 || !pattern.endsWith(")")) {
+            throw new IllegalArgumentException("Missing parameter list in pointcut: " + expression);
+        }
+        String parameters = pattern.substring(open + 1, pattern.length() - 1).trim();
 
-        // 分解表达式部分
-        String[] parts = pattern.split("\\s+");
+        // 分解表达式部分：[修饰符...] 返回类型 声明类型.方法名
+        String[] parts = pattern.substring(0, open).trim().split("\\s+");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Missing return type in pointcut: " + expression);
+        }
+        List<String> modifiers = Arrays.asList(parts).subList(0, parts.length - 2);
+        String returnType = parts[parts.length - 2];
+        String typeAndMethod = parts[parts.length - 1];
+        if (returnType.equals("..")) {
+            throw new IllegalArgumentException("Invalid return type in pointcut: " + expression);
+        }
+
+        int dot = typeAndMethod.lastIndexOf('.');
+        String declaringType = dot < 0 ? "*" : typeAndMethod.substring(0, dot);
+        String methodName = typeAndMethod.substring(dot + 1);
+        // com..find*(..) 中的 .. 之后省略了类名
+        if (declaringType.endsWith(".")) {
+            declaringType += "*";
+        }
+
+        List<TypePattern> parameterPatterns = new ArrayList<>();
+        if (!parameters.isEmpty()) {
+            for (String parameter : parameters.split(",")) {
+                parameterPatterns.add(TypePattern.of(parameter.trim()));
+            }
+        }
+        return new Pointcut(modifiers, TypePattern.of(returnType), TypePattern.of(declaringType),
+                Pattern.compile(methodName.replace("*", ".*")), parameterPatterns);
+    }
+
+    /**
+     * 解析后的 execution 切点
+     */
+    private static class Pointcut {
+        final List<String> modifiers;
+        final TypePattern returnType;
+        final TypePattern declaringType;
+        final Pattern methodName;
+        // null 元素表示 ..，匹配任意个参数
+        final List<TypePattern> parameters;
+
+        Pointcut(List<String> modifiers, TypePattern returnType, TypePattern declaringType,
+                Pattern methodName, List<TypePattern> parameters) {
+            this.modifiers = modifiers;
+            this.returnType = returnType;
+            this.declaringType = declaringType;
+            this.methodName = methodName;
+            this.parameters = parameters;
+        }
 
-        // 检查方法修饰符（如果指定）
-        if (!parts[0].equals("*")) {
-            if (!method.toString().contains(parts[0])) {
+        boolean matches(Method method, Class<?> targetClass) {
+            if (!methodName.matcher(method.getName()).matches()) {
                 return false;
             }
+            // 检查方法修饰符（如果指定）
+            String methodModifiers = Modifier.toString(method.getModifiers());
+            for (String modifier : modifiers) {
+                if (!Arrays.asList(methodModifiers.split(" ")).contains(modifier)) {
+                    return false;
+                }
+            }
+            if (!returnType.matches(method.getReturnType())
+                    || !matchParameters(method.getParameterTypes(), 0, 0)) {
+                return false;
+            }
+            for (Class<?> type : declaringTypes(method, targetClass)) {
+                if (declaringType.matches(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchParameters(Class<?>[] types, int typeIndex, int patternIndex) {
+            if (patternIndex == parameters.size()) {
+                return typeIndex == types.length;
+            }
+            TypePattern pattern = parameters.get(patternIndex);
+            if (pattern == null) {
+                for (int i = typeIndex; i <= types.length; i++) {
+                    if (matchParameters(types, i, patternIndex + 1)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return typeIndex < types.length && pattern.matches(types[typeIndex])
+                    && matchParameters(types, typeIndex + 1, patternIndex + 1);
+        }
+
+        /**
+         * 目标类及其父类、接口中声明了该方法的类型
+         */
+        private static Set<Class<?>> declaringTypes(Method method, Class<?> targetClass) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            types.add(method.getDeclaringClass());
+            if (!method.getDeclaringClass().isAssignableFrom(targetClass)) {
+                return types;
+            }
+            List<Class<?>> candidates = new ArrayList<>();
+            for (Class<?> current = targetClass; current != null; current = current.getSuperclass()) {
+                candidates.add(current);
+            }
+            candidates.addAll(Arrays.asList(AopProxy.getAllInterfaces(targetClass)));
+            for (Class<?> type : candidates) {
+                try {
+                    type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                    types.add(type);
+                } catch (NoSuchMethodException e) {
+                    // 该类型没有声明此方法
+                }
+            }
+            return types;
         }
+    }
 
-        // 获取类和方法部分
-        String classAndMethod = parts[parts.length - 1];
-        String[] methodParts = classAndMethod.split("\\.");
+    /**
+     * 类型名称模式
+     */
+    private static class TypePattern {
+        private static final TypePattern ANY = new TypePattern(null, false);
 
-        // 构建正则表达式
-        String regex = methodParts[methodParts.length - 1]
-                .replace("*", ".*")
-                .replace("(", "\\(")
-                .replace(")", "\\)")
-                .replace("..", ".*");
+        // null 表示匹配任意类型
+        final Pattern pattern;
+        final boolean qualified;
 
-        // 检查方法名是否匹配
-        return Pattern.compile(regex).matcher(method.getName()).matches();
+        TypePattern(Pattern pattern, boolean qualified) {
+            this.pattern = pattern;
+            this.qualified = qualified;
+        }
+
+        /**
+         * 参数列表中的 .. 返回 null
+         */
+        static TypePattern of(String text) {
+            if (text.equals("..")) {
+                return null;
+            }
+            if (text.equals("*")) {
+                return ANY;
+            }
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '.' && i + 1 < text.length() && text.charAt(i + 1) == '.') {
+                    regex.append("\\.(?:.*\\.)?");
+                    i++;
+                } else if (c == '*') {
+                    regex.append("[^.]*");
+                } else if (Character.isLetterOrDigit(c) || c == '_') {
+                    regex.append(c);
+                } else {
+                    regex.append('\\').append(c);
+                }
+            }
+            return new TypePattern(Pattern.compile(regex.toString()), text.indexOf('.') >= 0);
+        }
+
+        boolean matches(Class<?> type) {
+            if (pattern == null) {
+                return true;
+            }
+            String name = qualified ? type.getTypeName() : type.getSimpleName();
+            // 内部类既可以写成 Outer$Inner，也可以写成 Outer.Inner
+            return pattern.matcher(name).matches() || pattern.matcher(name.replace('$', '.')).matches();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.spring.aop;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -18,10 +19,14 @@ public class ProceedingJoinPoint {
     }
 
     /**
-     * 执行目标方法
+     * 执行目标方法，抛出目标方法本身的异常
      */
     public Object proceed() throws Throwable {
-        return method.invoke(target, args);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
     }
 
     /**
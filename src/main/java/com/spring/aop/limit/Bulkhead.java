@@ -0,0 +1,40 @@
+package com.spring.aop.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 舱壁注解
+ * 由 AopProxy 限制方法的最大并发调用数
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Bulkhead {
+
+    /**
+     * 舱壁名称，默认为 类名.方法名，同名方法共享同一个并发额度
+     */
+    String name() default "";
+
+    /**
+     * 最大并发调用数
+     */
+    int maxConcurrentCalls();
+
+    /**
+     * 达到限制时的处理策略
+     */
+    LimitPolicy policy() default LimitPolicy.FAIL_FAST;
+
+    /**
+     * BOUNDED_WAIT 策略下的最长等待时间（毫秒）
+     */
+    long maxWaitMillis() default 0;
+
+    /**
+     * QUEUE 策略下允许的最大排队数
+     */
+    int maxQueueSize() default Integer.MAX_VALUE;
+}
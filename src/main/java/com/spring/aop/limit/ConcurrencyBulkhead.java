@@ -0,0 +1,193 @@
+package com.spring.aop.limit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于 CAS 的并发舱壁
+ * 未达到并发上限时只做一次 CAS；只有需要等待的调用才会进入等待队列并挂起
+ */
+public class ConcurrencyBulkhead implements Limiter {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final LimitPolicy policy;
+    private final long maxWaitNanos;
+    private final int maxQueueSize;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    // 等待中的线程，release 时唤醒队首
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+
+    public ConcurrencyBulkhead(String name, int maxConcurrentCalls, LimitPolicy policy,
+            long maxWaitMillis, int maxQueueSize) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be positive: " + name);
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.policy = policy;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public static ConcurrencyBulkhead of(String name, Bulkhead bulkhead) {
+        return new ConcurrencyBulkhead(name, bulkhead.maxConcurrentCalls(), bulkhead.policy(),
+                bulkhead.maxWaitMillis(), bulkhead.maxQueueSize());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "maxConcurrentCalls=" + maxConcurrentCalls + ", policy=" + policy
+                + ", maxWaitNanos=" + maxWaitNanos + ", maxQueueSize=" + maxQueueSize;
+    }
+
+    @Override
+    public void acquire() {
+        // 快速路径：未达到并发上限
+        if (tryAcquire()) {
+            permitted.increment();
+            return;
+        }
+
+        boolean acquired;
+        switch (policy) {
+            case BOUNDED_WAIT:
+                acquired = maxWaitNanos > 0 && awaitPermit(System.nanoTime() + maxWaitNanos, true);
+                break;
+            case QUEUE:
+                if (queued.incrementAndGet() > maxQueueSize) {
+                    queued.decrementAndGet();
+                    acquired = false;
+                } else {
+                    try {
+                        acquired = awaitPermit(0L, false);
+                    } finally {
+                        queued.decrementAndGet();
+                    }
+                }
+                break;
+            default:
+                acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            throw new LimitExceededException(name, "Bulkhead is full: " + name);
+        }
+        waited.increment();
+        permitted.increment();
+    }
+
+    @Override
+    public void release() {
+        active.decrementAndGet();
+        Thread next = waiters.peek();
+        if (next != null) {
+            LockSupport.unpark(next);
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 进入等待队列直到拿到许可
+     * 先入队再重试，保证入队之后的 release 一定能唤醒到本线程
+     */
+    private boolean awaitPermit(long deadline, boolean timed) {
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        boolean acquired = false;
+        try {
+            while (!(acquired = tryAcquire())) {
+                if (Thread.interrupted()) {
+                    current.interrupt();
+                    return false;
+                }
+                if (timed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            return true;
+        } finally {
+            waiters.remove(current);
+            // 若仍有空闲额度，把唤醒信号传递给下一个等待者，避免信号被本线程吞掉
+            if (active.get() < maxConcurrentCalls || !acquired) {
+                Thread next = waiters.peek();
+                if (next != null) {
+                    LockSupport.unpark(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前正在执行的调用数
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * 当前排队等待的调用数
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    @Override
+    public long getPermittedCount() {
+        return permitted.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getWaitedCount() {
+        return waited.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyBulkhead{name=" + name + ", active=" + getActiveCount()
+                + ", queued=" + getQueuedCount() + ", permitted=" + getPermittedCount()
+                + ", rejected=" + getRejectedCount() + ", waited=" + getWaitedCount() + "}";
+    }
+}
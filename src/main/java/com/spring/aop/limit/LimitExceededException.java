@@ -0,0 +1,23 @@
+package com.spring.aop.limit;
+
+/**
+ * 调用被限流器或舱壁拒绝时抛出的异常
+ */
+public class LimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String limiterName;
+
+    public LimitExceededException(String limiterName, String message) {
+        super(message);
+        this.limiterName = limiterName;
+    }
+
+    /**
+     * 获取拒绝本次调用的限流器名称
+     */
+    public String getLimiterName() {
+        return limiterName;
+    }
+}
@@ -0,0 +1,21 @@
+package com.spring.aop.limit;
+
+/**
+ * 达到限制时的处理策略
+ */
+public enum LimitPolicy {
+    /**
+     * 立即失败，抛出 LimitExceededException
+     */
+    FAIL_FAST,
+
+    /**
+     * 有界等待，最多等待 maxWaitMillis 毫秒，超时则失败
+     */
+    BOUNDED_WAIT,
+
+    /**
+     * 排队等待，不设超时；排队数量超过 maxQueueSize 时失败
+     */
+    QUEUE
+}
@@ -0,0 +1,43 @@
+package com.spring.aop.limit;
+
+/**
+ * 限流器接口
+ * acquire 与 release 成对调用，指标可在运行时随时读取
+ */
+public interface Limiter {
+
+    /**
+     * 获取限流器名称
+     */
+    String getName();
+
+    /**
+     * 获取配置描述，名称、类型和配置都相同的限流器才能共享
+     */
+    String getConfiguration();
+
+    /**
+     * 获取一次调用许可，被拒绝时抛出 LimitExceededException
+     */
+    void acquire();
+
+    /**
+     * 归还调用许可，调用结束后执行
+     */
+    void release();
+
+    /**
+     * 已放行的调用数
+     */
+    long getPermittedCount();
+
+    /**
+     * 被拒绝的调用数
+     */
+    long getRejectedCount();
+
+    /**
+     * 经过等待后才放行的调用数
+     */
+    long getWaitedCount();
+}
@@ -0,0 +1,77 @@
+package com.spring.aop.limit;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流器注册表
+ * 按名称保存限流器和舱壁，用于共享额度和读取运行时指标
+ * 每个容器持有自己的注册表，不同容器之间的同名限流器互不影响
+ */
+public class LimiterRegistry {
+
+    private static final LimiterRegistry SHARED_INSTANCE = new LimiterRegistry();
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 获取共享的注册表，供不经过容器直接创建的 AopProxy 使用
+     */
+    public static LimiterRegistry getSharedInstance() {
+        return SHARED_INSTANCE;
+    }
+
+    /**
+     * 注册限流器
+     * 同名限流器已存在且类型和配置都相同时返回已有的限流器；
+     * 配置不同时，replace 为 true 则用 candidate 替换，否则抛出 IllegalStateException
+     */
+    public Limiter register(Limiter candidate, boolean replace) {
+        return limiters.compute(candidate.getName(), (name, existing) -> {
+            if (existing == null) {
+                return candidate;
+            }
+            if (existing.getClass() == candidate.getClass()
+                    && existing.getConfiguration().equals(candidate.getConfiguration())) {
+                return existing;
+            }
+            if (replace) {
+                return candidate;
+            }
+            throw new IllegalStateException("Limiter name '" + name + "' is already used by "
+                    + existing.getClass().getSimpleName() + "{" + existing.getConfiguration() + "}, cannot register "
+                    + candidate.getClass().getSimpleName() + "{" + candidate.getConfiguration() + "}");
+        });
+    }
+
+    /**
+     * 获取指定名称的限流器，不存在时返回 null
+     */
+    public Limiter getLimiter(String name) {
+        return limiters.get(name);
+    }
+
+    /**
+     * 复制当前所有限流器，配合 restore 在容器刷新失败时回滚
+     */
+    public Map<String, Limiter> snapshot() {
+        return new HashMap<>(limiters);
+    }
+
+    /**
+     * 恢复到 snapshot 时的状态
+     */
+    public void restore(Map<String, Limiter> snapshot) {
+        limiters.keySet().retainAll(snapshot.keySet());
+        limiters.putAll(snapshot);
+    }
+
+    /**
+     * 获取所有限流器（只读视图）
+     */
+    public Map<String, Limiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+}
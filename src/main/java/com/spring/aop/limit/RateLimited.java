@@ -0,0 +1,45 @@
+package com.spring.aop.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 限流注解
+ * 由 AopProxy 基于令牌桶对方法调用进行限流
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimited {
+
+    /**
+     * 限流器名称，默认为 类名.方法名，同名方法共享同一个限流器
+     */
+    String name() default "";
+
+    /**
+     * 每秒发放的令牌数
+     */
+    double permitsPerSecond();
+
+    /**
+     * 令牌桶容量（允许的突发量），小于等于 0 时取 permitsPerSecond 向上取整
+     */
+    int capacity() default 0;
+
+    /**
+     * 达到限制时的处理策略
+     */
+    LimitPolicy policy() default LimitPolicy.FAIL_FAST;
+
+    /**
+     * BOUNDED_WAIT 策略下的最长等待时间（毫秒）
+     */
+    long maxWaitMillis() default 0;
+
+    /**
+     * QUEUE 策略下允许的最大排队数
+     */
+    int maxQueueSize() default Integer.MAX_VALUE;
+}
@@ -0,0 +1,200 @@
+package com.spring.aop.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于 CAS 的令牌桶限流器
+ * 令牌桶状态只用一个"下一个令牌的理论发放时间"表示（GCRA 算法），
+ * 获取令牌只需一次 CAS，热路径上没有锁也没有对象分配
+ */
+public class TokenBucketRateLimiter implements Limiter {
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final int capacity;
+    // 每个令牌的发放间隔（纳秒）
+    private final long intervalNanos;
+    // 允许提前消费的时间，即桶容量对应的突发量
+    private final long burstNanos;
+    private final LimitPolicy policy;
+    private final long maxWaitNanos;
+    private final int maxQueueSize;
+
+    // 理论到达时间：当前已发放的令牌全部"追平"的时刻
+    private final AtomicLong theoreticalArrivalTime;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, double permitsPerSecond, int capacity,
+            LimitPolicy policy, long maxWaitMillis, int maxQueueSize) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + name);
+        }
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity > 0 ? capacity : (int) Math.ceil(permitsPerSecond);
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = (this.capacity - 1) * intervalNanos;
+        this.policy = policy;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxQueueSize = maxQueueSize;
+        // 初始时桶是满的
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    public static TokenBucketRateLimiter of(String name, RateLimited rateLimited) {
+        return new TokenBucketRateLimiter(name, rateLimited.permitsPerSecond(), rateLimited.capacity(),
+                rateLimited.policy(), rateLimited.maxWaitMillis(), rateLimited.maxQueueSize());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return "permitsPerSecond=" + permitsPerSecond + ", capacity=" + capacity + ", policy=" + policy
+                + ", maxWaitNanos=" + maxWaitNanos + ", maxQueueSize=" + maxQueueSize;
+    }
+
+    @Override
+    public void acquire() {
+        // 快速路径：桶中有令牌，直接放行
+        if (reserve(0L) == 0L) {
+            permitted.increment();
+            return;
+        }
+
+        long waitNanos;
+        switch (policy) {
+            case BOUNDED_WAIT:
+                waitNanos = reserve(maxWaitNanos);
+                break;
+            case QUEUE:
+                if (queued.incrementAndGet() > maxQueueSize) {
+                    queued.decrementAndGet();
+                    waitNanos = -1L;
+                } else {
+                    try {
+                        waitNanos = reserve(Long.MAX_VALUE);
+                        sleepUninterruptibly(waitNanos);
+                    } finally {
+                        queued.decrementAndGet();
+                    }
+                    waited.increment();
+                    permitted.increment();
+                    return;
+                }
+                break;
+            default:
+                waitNanos = -1L;
+        }
+
+        if (waitNanos < 0) {
+            rejected.increment();
+            throw new LimitExceededException(name, "Rate limit exceeded: " + name);
+        }
+        sleepUninterruptibly(waitNanos);
+        waited.increment();
+        permitted.increment();
+    }
+
+    @Override
+    public void release() {
+        // 令牌随时间补充，无需归还
+    }
+
+    /**
+     * 预订一个令牌
+     *
+     * @param maxWaitNanos 能接受的最长等待时间
+     * @return 拿到令牌前需要等待的纳秒数，无法在 maxWaitNanos 内拿到时返回 -1
+     */
+    private long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalTime.get();
+            long start = tat - now > 0 ? tat : now;
+            long waitNanos = start - now - burstNanos;
+            if (waitNanos > maxWaitNanos) {
+                return -1L;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, start + intervalNanos)) {
+                return Math.max(0L, waitNanos);
+            }
+        }
+    }
+
+    /**
+     * 等待预订的令牌到期；令牌已经扣除，因此中断只恢复标记，不放弃本次调用
+     */
+    private static void sleepUninterruptibly(long waitNanos) {
+        long deadline = System.nanoTime() + waitNanos;
+        boolean interrupted = false;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 当前桶中可用的令牌数
+     */
+    public int getAvailablePermits() {
+        long ahead = theoreticalArrivalTime.get() - System.nanoTime();
+        if (ahead <= 0) {
+            return capacity;
+        }
+        // 桶已透支时分子为负，需要向下取整
+        long available = Math.floorDiv(burstNanos - ahead, intervalNanos) + 1;
+        return (int) Math.max(0L, Math.min(capacity, available));
+    }
+
+    /**
+     * 当前排队等待的调用数
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getPermittedCount() {
+        return permitted.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getWaitedCount() {
+        return waited.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucketRateLimiter{name=" + name + ", available=" + getAvailablePermits()
+                + ", permitted=" + getPermittedCount() + ", rejected=" + getRejectedCount()
+                + ", waited=" + getWaitedCount() + "}";
+    }
+}
@@ -0,0 +1,310 @@
+package com.spring.aop.trace;
+
+import com.spring.aop.PointcutParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 方法追踪器
+ * 每个线程把方法的进入和退出事件写入自己预分配的环形缓冲区，热路径上没有锁和对象分配；
+ * 需要时通过内存映射文件把所有缓冲区导出为紧凑的二进制格式，由 TraceReader 解析
+ *
+ * 导出格式（大端序）：
+ * magic(int) version(short) dumpNanoTime(long) dumpEpochMillis(long)
+ * methodCount(int) { methodId(int) nameLength(short) name(UTF-8) }
+ * threadCount(int) { threadId(long) nameLength(short) name(UTF-8) eventCount(int) { timestamp(long) code(int) } }
+ */
+public final class MethodTracer {
+
+    static final int MAGIC = 0x54524143;
+    static final short VERSION = 1;
+
+    private static final int DEFAULT_BUFFER_CAPACITY = 1 << 14;
+
+    // 追踪关闭时 enter 返回的值，nanoTime 可能为 0 或负数，因此不能用普通时间值表示
+    static final long DISABLED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = true;
+    private static volatile int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+    // 早于该时间的事件在导出时被忽略，用于 reset
+    private static volatile long epochNanos = Long.MIN_VALUE;
+
+    private static final Map<String, Integer> methodIds = new ConcurrentHashMap<>();
+    private static final List<String> methodNames = new CopyOnWriteArrayList<>();
+    private static final List<String> pointcuts = new CopyOnWriteArrayList<>();
+
+    private static final List<TraceBuffer> buffers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<TraceBuffer> BUFFER = ThreadLocal.withInitial(() -> {
+        TraceBuffer buffer = new TraceBuffer(Thread.currentThread(), bufferCapacity);
+        // 新线程注册时顺带清理已结束线程的缓冲区，避免不导出时无限增长
+        buffers.removeIf(existing -> !existing.isThreadAlive());
+        buffers.add(buffer);
+        return buffer;
+    });
+
+    // 慢调用触发导出
+    private static volatile long slowCallThresholdNanos;
+    private static volatile Path slowCallDumpDirectory;
+    private static final long TRIGGER_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final AtomicBoolean dumping = new AtomicBoolean();
+    private static final AtomicLong lastTriggerTime = new AtomicLong(System.nanoTime() - TRIGGER_INTERVAL_NANOS);
+
+    private MethodTracer() {
+    }
+
+    /**
+     * 注册方法并返回方法 ID，同名方法返回同一个 ID
+     */
+    public static int registerMethod(String name) {
+        Integer id = methodIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (methodNames) {
+            id = methodIds.get(name);
+            if (id == null) {
+                id = methodNames.size();
+                methodNames.add(name);
+                methodIds.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 添加切点表达式，匹配的方法即使没有 @Traced 也会被追踪
+     * 需要在 Bean 创建前添加；表达式格式错误时抛出 IllegalArgumentException
+     */
+    public static void addPointcut(String pointcut) {
+        PointcutParser.validate(pointcut);
+        pointcuts.add(pointcut);
+    }
+
+    /**
+     * 判断目标类的方法是否匹配已添加的切点
+     */
+    public static boolean matchesPointcut(Method method, Class<?> targetClass) {
+        for (String pointcut : pointcuts) {
+            if (PointcutParser.matches(pointcut, method, targetClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录方法进入
+     *
+     * @return 进入时间，追踪关闭时返回 DISABLED
+     */
+    public static long enter(int methodId) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        long now = System.nanoTime();
+        BUFFER.get().record(now, methodId << 1);
+        return now;
+    }
+
+    /**
+     * 记录方法退出
+     *
+     * @param start enter 返回的进入时间
+     */
+    public static void exit(int methodId, long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        long now = System.nanoTime();
+        BUFFER.get().record(now, methodId << 1 | 1);
+        long threshold = slowCallThresholdNanos;
+        if (threshold > 0 && now - start > threshold) {
+            triggerDump();
+        }
+    }
+
+    public static void setEnabled(boolean enabled) {
+        MethodTracer.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 设置每个线程缓冲区可保存的事件数，向上取整为 2 的幂，只对之后首次记录的线程生效
+     */
+    public static void setBufferCapacity(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        bufferCapacity = size;
+    }
+
+    /**
+     * 调用耗时超过 thresholdMillis 时，在后台把缓冲区导出到 directory，两次导出至少间隔 1 秒
+     * thresholdMillis 小于等于 0 时关闭触发
+     */
+    public static void setSlowCallTrigger(long thresholdMillis, Path directory) {
+        slowCallDumpDirectory = directory;
+        slowCallThresholdNanos = thresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(thresholdMillis) : 0L;
+    }
+
+    /**
+     * 丢弃此前记录的所有事件
+     */
+    public static void reset() {
+        epochNanos = System.nanoTime();
+    }
+
+    private static void triggerDump() {
+        long now = System.nanoTime();
+        long last = lastTriggerTime.get();
+        if (now - last < TRIGGER_INTERVAL_NANOS || !lastTriggerTime.compareAndSet(last, now)) {
+            return;
+        }
+        Path directory = slowCallDumpDirectory;
+        if (directory == null) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                dump(directory.resolve("trace-" + System.currentTimeMillis() + ".bin"));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "trace-dump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 通过内存映射文件把所有线程的缓冲区导出到 file
+     * 同一时间只允许一个导出，正在导出时返回 false
+     */
+    public static boolean dump(Path file) {
+        if (!dumping.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long dumpNanoTime = System.nanoTime();
+            long dumpEpochMillis = System.currentTimeMillis();
+            long epoch = epochNanos;
+
+            List<TraceBuffer> threads = new ArrayList<>();
+            List<TraceBuffer.Snapshot> snapshots = new ArrayList<>();
+            for (TraceBuffer buffer : buffers) {
+                TraceBuffer.Snapshot snapshot = trim(buffer.snapshot(), epoch);
+                if (snapshot.timestamps.length > 0) {
+                    threads.add(buffer);
+                    snapshots.add(snapshot);
+                }
+                // 线程已结束的缓冲区导出后不再保留
+                if (!buffer.isThreadAlive()) {
+                    buffers.remove(buffer);
+                }
+            }
+            List<String> names = new ArrayList<>(methodNames);
+
+            List<byte[]> methodBytes = new ArrayList<>();
+            long size = 4 + 2 + 8 + 8 + 4 + 4;
+            for (String name : names) {
+                byte[] bytes = encode(name);
+                methodBytes.add(bytes);
+                size += 4 + 2 + bytes.length;
+            }
+            List<byte[]> threadBytes = new ArrayList<>();
+            for (int i = 0; i < threads.size(); i++) {
+                byte[] bytes = encode(threads.get(i).threadName);
+                threadBytes.add(bytes);
+                size += 8 + 2 + bytes.length + 4 + 12L * snapshots.get(i).timestamps.length;
+            }
+
+            Files.deleteIfExists(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.putInt(MAGIC);
+                out.putShort(VERSION);
+                out.putLong(dumpNanoTime);
+                out.putLong(dumpEpochMillis);
+                out.putInt(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    out.putInt(i);
+                    out.putShort((short) methodBytes.get(i).length);
+                    out.put(methodBytes.get(i));
+                }
+                out.putInt(threads.size());
+                for (int i = 0; i < threads.size(); i++) {
+                    TraceBuffer.Snapshot snapshot = snapshots.get(i);
+                    out.putLong(threads.get(i).threadId);
+                    out.putShort((short) threadBytes.get(i).length);
+                    out.put(threadBytes.get(i));
+                    out.putInt(snapshot.timestamps.length);
+                    for (int j = 0; j < snapshot.timestamps.length; j++) {
+                        out.putLong(snapshot.timestamps[j]);
+                        out.putInt(snapshot.codes[j]);
+                    }
+                }
+                out.force();
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error dumping trace to " + file, e);
+        } finally {
+            dumping.set(false);
+        }
+    }
+
+    /**
+     * 去掉 reset 之前的事件
+     */
+    private static TraceBuffer.Snapshot trim(TraceBuffer.Snapshot snapshot, long epoch) {
+        if (epoch == Long.MIN_VALUE) {
+            return snapshot;
+        }
+        int skip = 0;
+        while (skip < snapshot.timestamps.length && snapshot.timestamps[skip] - epoch < 0) {
+            skip++;
+        }
+        if (skip == 0) {
+            return snapshot;
+        }
+        int count = snapshot.timestamps.length - skip;
+        long[] timestamps = new long[count];
+        int[] codes = new int[count];
+        System.arraycopy(snapshot.timestamps, skip, timestamps, 0, count);
+        System.arraycopy(snapshot.codes, skip, codes, 0, count);
+        return new TraceBuffer.Snapshot(timestamps, codes);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            byte[] truncated = new byte[0xFFFF];
+            System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+            return truncated;
+        }
+        return bytes;
+    }
+}
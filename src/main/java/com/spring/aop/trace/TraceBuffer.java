@@ -0,0 +1,91 @@
+package com.spring.aop.trace;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 单个线程的追踪环形缓冲区
+ * 只有所属线程写入，写入时不加锁也不分配对象；缓冲区写满后覆盖最旧的事件
+ */
+final class TraceBuffer {
+
+    private static final AtomicLongFieldUpdater<TraceBuffer> POSITION_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(TraceBuffer.class, "position");
+
+    final long threadId;
+    final String threadName;
+    private final WeakReference<Thread> thread;
+
+    private final long[] timestamps;
+    // 事件编码：methodId << 1 | (0 进入, 1 退出)
+    private final int[] codes;
+    private final int mask;
+    // 已写入的事件总数，只由所属线程递增
+    private volatile long position;
+
+    TraceBuffer(Thread thread, int capacity) {
+        this.threadId = thread.getId();
+        this.threadName = thread.getName();
+        this.thread = new WeakReference<>(thread);
+        this.timestamps = new long[capacity];
+        this.codes = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    void record(long timestamp, int code) {
+        long p = position;
+        int index = (int) (p & mask);
+        timestamps[index] = timestamp;
+        codes[index] = code;
+        // 有序写即可保证读线程看到 position 时事件已写入，比 volatile 写开销更小
+        POSITION_UPDATER.lazySet(this, p + 1);
+    }
+
+    /**
+     * 复制当前缓冲区中的事件，丢弃复制过程中被覆盖的部分
+     */
+    Snapshot snapshot() {
+        int capacity = timestamps.length;
+        long end = position;
+        long start = Math.max(0L, end - capacity);
+        int count = (int) (end - start);
+        long[] ts = new long[count];
+        int[] cs = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((start + i) & mask);
+            ts[i] = timestamps[index];
+            cs[i] = codes[index];
+        }
+        // 复制期间写线程可能覆盖了最旧的事件；写线程在发布 position 之前已经开始改写下一个槽位，
+        // 所以 position 之外还要多算一个
+        long overwritten = position + 1 - capacity - start;
+        if (overwritten > 0) {
+            int skip = (int) Math.min(overwritten, count);
+            long[] ts2 = new long[count - skip];
+            int[] cs2 = new int[count - skip];
+            System.arraycopy(ts, skip, ts2, 0, ts2.length);
+            System.arraycopy(cs, skip, cs2, 0, cs2.length);
+            ts = ts2;
+            cs = cs2;
+        }
+        return new Snapshot(ts, cs);
+    }
+
+    boolean isThreadAlive() {
+        Thread t = thread.get();
+        return t != null && t.isAlive();
+    }
+
+    /**
+     * 缓冲区事件的副本
+     */
+    static final class Snapshot {
+        final long[] timestamps;
+        final int[] codes;
+
+        Snapshot(long[] timestamps, int[] codes) {
+            this.timestamps = timestamps;
+            this.codes = codes;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.spring.aop.trace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 追踪文件读取器
+ * 把 MethodTracer 导出的二进制文件还原成每个线程的调用时间线，
+ * 也可以输出火焰图工具使用的折叠栈格式
+ *
+ * 用法：java com.spring.aop.trace.TraceReader trace.bin [--folded]
+ */
+public class TraceReader {
+
+    private final long dumpNanoTime;
+    private final long dumpEpochMillis;
+    private final List<ThreadTrace> threads;
+
+    private TraceReader(long dumpNanoTime, long dumpEpochMillis, List<ThreadTrace> threads) {
+        this.dumpNanoTime = dumpNanoTime;
+        this.dumpEpochMillis = dumpEpochMillis;
+        this.threads = threads;
+    }
+
+    /**
+     * 读取追踪文件
+     */
+    public static TraceReader read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MethodTracer.MAGIC) {
+                throw new IOException("Not a trace file: " + file);
+            }
+            short version = in.getShort();
+            if (version != MethodTracer.VERSION) {
+                throw new IOException("Unsupported trace file version " + version + ": " + file);
+            }
+            long dumpNanoTime = in.getLong();
+            long dumpEpochMillis = in.getLong();
+
+            Map<Integer, String> methods = new LinkedHashMap<>();
+            int methodCount = in.getInt();
+            for (int i = 0; i < methodCount; i++) {
+                int id = in.getInt();
+                methods.put(id, readString(in));
+            }
+
+            int threadCount = in.getInt();
+            List<ThreadTrace> threads = new ArrayList<>(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                long threadId = in.getLong();
+                String threadName = readString(in);
+                int eventCount = in.getInt();
+                long[] timestamps = new long[eventCount];
+                int[] codes = new int[eventCount];
+                for (int j = 0; j < eventCount; j++) {
+                    timestamps[j] = in.getLong();
+                    codes[j] = in.getInt();
+                }
+                threads.add(buildThreadTrace(threadId, threadName, timestamps, codes, methods));
+            }
+            return new TraceReader(dumpNanoTime, dumpEpochMillis, threads);
+        }
+    }
+
+    private static String readString(MappedByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按进入和退出事件还原调用栈
+     * 缓冲区被覆盖后可能出现没有进入事件的退出，这些退出被忽略；没有退出的调用以最后一个事件为结束
+     */
+    private static ThreadTrace buildThreadTrace(long threadId, String threadName, long[] timestamps, int[] codes,
+            Map<Integer, String> methods) {
+        List<Span> spans = new ArrayList<>();
+        Deque<Span> stack = new ArrayDeque<>();
+        for (int i = 0; i < timestamps.length; i++) {
+            int methodId = codes[i] >>> 1;
+            boolean exit = (codes[i] & 1) == 1;
+            if (!exit) {
+                String name = methods.getOrDefault(methodId, "#" + methodId);
+                Span parent = stack.peek();
+                String stackPath = parent == null ? name : parent.stackPath + ";" + name;
+                Span span = new Span(methodId, name, stackPath, stack.size(), timestamps[i]);
+                spans.add(span);
+                stack.push(span);
+                continue;
+            }
+            // 弹出到匹配的进入事件为止，中间未闭合的调用视为同时结束
+            boolean matched = false;
+            for (Span span : stack) {
+                if (span.methodId == methodId) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                continue;
+            }
+            Span span;
+            do {
+                span = stack.pop();
+                close(span, timestamps[i], stack.peek());
+            } while (span.methodId != methodId);
+        }
+        long last = timestamps.length > 0 ? timestamps[timestamps.length - 1] : 0L;
+        while (!stack.isEmpty()) {
+            Span span = stack.pop();
+            span.complete = false;
+            close(span, last, stack.peek());
+        }
+        return new ThreadTrace(threadId, threadName, spans);
+    }
+
+    private static void close(Span span, long endNanos, Span parent) {
+        span.endNanos = endNanos;
+        if (parent != null) {
+            parent.childNanos += span.getDurationNanos();
+        }
+    }
+
+    /**
+     * 输出每个线程的调用时间线，缩进表示调用深度
+     */
+    public void printTimeline(PrintStream out) {
+        out.println("Trace dumped at " + new Date(dumpEpochMillis));
+        for (ThreadTrace thread : threads) {
+            out.println();
+            out.println("Thread " + thread.threadId + " [" + thread.threadName + "]");
+            for (Span span : thread.spans) {
+                StringBuilder line = new StringBuilder();
+                // 相对导出时刻的时间
+                line.append(String.format("%12.3f ms ", (span.startNanos - dumpNanoTime) / 1e6));
+                for (int i = 0; i < span.depth; i++) {
+                    line.append("  ");
+                }
+                line.append(span.methodName)
+                        .append(String.format(" %.3f ms", span.getDurationNanos() / 1e6));
+                if (!span.complete) {
+                    line.append(" (unfinished)");
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    /**
+     * 输出折叠栈格式（线程;方法;方法 自身耗时微秒），可直接作为火焰图工具的输入
+     */
+    public void printFoldedStacks(PrintStream out) {
+        Map<String, Long> folded = new LinkedHashMap<>();
+        for (ThreadTrace thread : threads) {
+            for (Span span : thread.spans) {
+                String key = thread.threadName + ";" + span.stackPath;
+                folded.merge(key, span.getSelfNanos(), Long::sum);
+            }
+        }
+        for (Map.Entry<String, Long> entry : folded.entrySet()) {
+            long micros = entry.getValue() / 1000;
+            if (micros > 0) {
+                out.println(entry.getKey() + " " + micros);
+            }
+        }
+    }
+
+    public List<ThreadTrace> getThreads() {
+        return Collections.unmodifiableList(threads);
+    }
+
+    public long getDumpEpochMillis() {
+        return dumpEpochMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TraceReader <trace-file> [--folded]");
+            return;
+        }
+        TraceReader reader = read(Paths.get(args[0]));
+        if (args.length > 1 && args[1].equals("--folded")) {
+            reader.printFoldedStacks(System.out);
+        } else {
+            reader.printTimeline(System.out);
+        }
+    }
+
+    /**
+     * 单个线程的调用记录
+     */
+    public static class ThreadTrace {
+        private final long threadId;
+        private final String threadName;
+        private final List<Span> spans;
+
+        ThreadTrace(long threadId, String threadName, List<Span> spans) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.spans = spans;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 按进入时间排序的调用
+         */
+        public List<Span> getSpans() {
+            return Collections.unmodifiableList(spans);
+        }
+    }
+
+    /**
+     * 一次方法调用
+     */
+    public static class Span {
+        private final int methodId;
+        private final String methodName;
+        private final String stackPath;
+        private final int depth;
+        private final long startNanos;
+        private long endNanos;
+        private long childNanos;
+        private boolean complete = true;
+
+        Span(int methodId, String methodName, String stackPath, int depth, long startNanos) {
+            this.methodId = methodId;
+            this.methodName = methodName;
+            this.stackPath = stackPath;
+            this.depth = depth;
+            this.startNanos = startNanos;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return endNanos - startNanos;
+        }
+
+        /**
+         * 去掉子调用后的自身耗时
+         */
+        public long getSelfNanos() {
+            return Math.max(0L, getDurationNanos() - childNanos);
+        }
+
+        /**
+         * 调用结束前缓冲区就被导出时为 false
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
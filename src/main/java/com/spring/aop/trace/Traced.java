@@ -0,0 +1,16 @@
+package com.spring.aop.trace;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法追踪注解
+ * 由 AopProxy 把方法的进入和退出时间记录到 MethodTracer 的线程环形缓冲区
+ * 标注在类上时追踪类中的所有方法
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Traced {
+}
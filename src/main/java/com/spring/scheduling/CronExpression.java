@@ -0,0 +1,147 @@
+package com.spring.scheduling;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * cron 表达式
+ * 格式：秒 分 时 日 月 周，支持 *、?、a-b、a,b、* /n、a/n、a-b/n，
+ * 月份支持 JAN-DEC，星期支持 SUN-SAT（0 和 7 都表示周日）
+ */
+public class CronExpression {
+
+    private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN",
+            "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+    private static final String[] DAYS = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+    // 最多向后查找的年数，超过则认为表达式永远不会触发（例如 2 月 30 日）
+    private static final int MAX_YEARS = 4;
+
+    private final String expression;
+    private final BitSet seconds;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+
+    private CronExpression(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 6) {
+            throw new IllegalArgumentException(
+                    "Cron expression must consist of 6 fields (found " + fields.length + "): " + expression);
+        }
+        this.expression = expression;
+        this.seconds = parseField(fields[0], 0, 59, null, 0);
+        this.minutes = parseField(fields[1], 0, 59, null, 0);
+        this.hours = parseField(fields[2], 0, 23, null, 0);
+        this.daysOfMonth = parseField(fields[3], 1, 31, null, 0);
+        this.months = parseField(fields[4], 1, 12, MONTHS, 1);
+        this.daysOfWeek = parseField(fields[5], 0, 7, DAYS, 0);
+        // 7 和 0 都表示周日
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+            daysOfWeek.clear(7);
+        }
+    }
+
+    public static CronExpression parse(String expression) {
+        return new CronExpression(expression);
+    }
+
+    /**
+     * 计算严格晚于 from 的下一次触发时间
+     *
+     * @return 下一次触发时间，表达式永远不会触发时返回 null
+     */
+    public ZonedDateTime next(ZonedDateTime from) {
+        ZonedDateTime time = from.plusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+        int maxYear = time.getYear() + MAX_YEARS;
+        while (time.getYear() <= maxYear) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.plusMonths(1).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+                continue;
+            }
+            if (!daysOfMonth.get(time.getDayOfMonth())
+                    || !daysOfWeek.get(time.getDayOfWeek().getValue() % 7)) {
+                time = time.plusDays(1).truncatedTo(ChronoUnit.DAYS);
+                continue;
+            }
+            if (!hours.get(time.getHour())) {
+                time = time.plusHours(1).truncatedTo(ChronoUnit.HOURS);
+                continue;
+            }
+            if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1).truncatedTo(ChronoUnit.MINUTES);
+                continue;
+            }
+            if (!seconds.get(time.getSecond())) {
+                time = time.plusSeconds(1);
+                continue;
+            }
+            return time;
+        }
+        return null;
+    }
+
+    private BitSet parseField(String field, int min, int max, String[] names, int nameOffset) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), null, 0);
+                if (step <= 0) {
+                    throw new IllegalArgumentException("Invalid step in cron expression: " + expression);
+                }
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*") || part.equals("?")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash >= 0) {
+                    start = parseNumber(part.substring(0, dash), names, nameOffset);
+                    end = parseNumber(part.substring(dash + 1), names, nameOffset);
+                } else {
+                    start = parseNumber(part, names, nameOffset);
+                    // a/n 表示从 a 开始到最大值，每 n 个取一个
+                    end = slash >= 0 ? max : start;
+                }
+            }
+            if (start < min || end > max || start > end) {
+                throw new IllegalArgumentException("Value out of range [" + min + ", " + max
+                        + "] in cron expression: " + expression);
+            }
+            for (int i = start; i <= end; i += step) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private int parseNumber(String value, String[] names, int nameOffset) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + nameOffset;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in cron expression: " + expression);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,30 @@
+package com.spring.scheduling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 定时任务配置注解
+ * 标注在配置类上，用于配置时间轮和执行任务的线程池，不标注时使用默认值
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EnableScheduling {
+
+    /**
+     * 执行任务的线程数
+     */
+    int poolSize() default 4;
+
+    /**
+     * 时间轮每格的时长（毫秒），即定时精度
+     */
+    long tickMillis() default 10;
+
+    /**
+     * 时间轮的格数，会向上取整为 2 的幂
+     */
+    int ticksPerWheel() default 512;
+}
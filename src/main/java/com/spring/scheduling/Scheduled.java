@@ -0,0 +1,41 @@
+package com.spring.scheduling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 定时任务注解
+ * 标注在无参方法上，Bean 初始化时由容器注册到共享的时间轮定时器
+ * fixedRate、fixedDelay、cron 三者必须且只能指定一个
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Scheduled {
+
+    /**
+     * 固定频率执行，两次开始之间的间隔（毫秒）
+     */
+    long fixedRate() default -1;
+
+    /**
+     * 固定延迟执行，上一次结束到下一次开始的间隔（毫秒）
+     */
+    long fixedDelay() default -1;
+
+    /**
+     * cron 表达式：秒 分 时 日 月 周
+     */
+    String cron() default "";
+
+    /**
+     * 首次执行前的延迟（毫秒），对 cron 任务无效
+     */
+    long initialDelay() default 0;
+
+    /**
+     * 上一次执行尚未结束时是否允许重叠执行，不允许时本次执行被跳过
+     */
+    boolean concurrent() default false;
+}
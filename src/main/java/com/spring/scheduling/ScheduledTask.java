@@ -0,0 +1,251 @@
+package com.spring.scheduling;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个 @Scheduled 方法对应的定时任务
+ * 到期时由时间轮线程提交到线程池执行，并记录执行、跳过、重叠和失败次数
+ */
+public class ScheduledTask implements TimerTask {
+
+    /**
+     * 调度方式
+     */
+    public enum Type {
+        FIXED_RATE,
+        FIXED_DELAY,
+        CRON
+    }
+
+    private final String name;
+    private final String beanName;
+    private final Object bean;
+    private final Method method;
+    private final Type type;
+    private final long periodNanos;
+    private final long initialDelayMillis;
+    private final CronExpression cron;
+    private final boolean concurrent;
+
+    private final HashedWheelTimer timer;
+    private final Executor executor;
+
+    // fixedRate 任务下一次的计划执行时间（System.nanoTime），用于避免误差累积
+    private long nextFireTime;
+    // cron 任务最近一次计划的触发时间
+    private ZonedDateTime lastScheduledTime;
+    private volatile Timeout timeout;
+    private volatile boolean cancelled;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder overlapped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    ScheduledTask(String beanName, Object bean, Method method, Scheduled scheduled,
+            HashedWheelTimer timer, Executor executor) {
+        String name = beanName + "." + method.getName();
+        if (method.getParameterCount() != 0) {
+            throw new IllegalStateException("@Scheduled method must have no parameters: " + name);
+        }
+        int kinds = (scheduled.fixedRate() > 0 ? 1 : 0) + (scheduled.fixedDelay() > 0 ? 1 : 0)
+                + (scheduled.cron().isEmpty() ? 0 : 1);
+        if (kinds != 1) {
+            throw new IllegalStateException(
+                    "Exactly one of 'fixedRate', 'fixedDelay' or 'cron' must be specified: " + name);
+        }
+        this.name = name;
+        this.beanName = beanName;
+        this.bean = bean;
+        this.method = method;
+        this.concurrent = scheduled.concurrent();
+        this.initialDelayMillis = scheduled.initialDelay();
+        this.timer = timer;
+        this.executor = executor;
+        if (scheduled.fixedRate() > 0) {
+            this.type = Type.FIXED_RATE;
+            this.periodNanos = TimeUnit.MILLISECONDS.toNanos(scheduled.fixedRate());
+            this.cron = null;
+        } else if (scheduled.fixedDelay() > 0) {
+            this.type = Type.FIXED_DELAY;
+            this.periodNanos = TimeUnit.MILLISECONDS.toNanos(scheduled.fixedDelay());
+            this.cron = null;
+        } else {
+            this.type = Type.CRON;
+            this.periodNanos = 0;
+            this.cron = CronExpression.parse(scheduled.cron());
+        }
+        method.setAccessible(true);
+    }
+
+    /**
+     * 启动任务
+     */
+    void start() {
+        if (type == Type.CRON) {
+            scheduleNextCron();
+            return;
+        }
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(initialDelayMillis, 0));
+        nextFireTime = System.nanoTime() + delayNanos;
+        schedule(delayNanos);
+    }
+
+    /**
+     * 在时间轮线程上执行，只负责安排下一次触发并把任务交给线程池
+     */
+    @Override
+    public void run(Timeout timeout) {
+        if (cancelled) {
+            return;
+        }
+        if (type == Type.FIXED_RATE) {
+            nextFireTime += periodNanos;
+            schedule(nextFireTime - System.nanoTime());
+        } else if (type == Type.CRON) {
+            scheduleNextCron();
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        if (running.get() > 0) {
+            if (!concurrent) {
+                skipped.increment();
+                return;
+            }
+            overlapped.increment();
+        }
+        running.incrementAndGet();
+        try {
+            executor.execute(this::execute);
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            skipped.increment();
+        }
+    }
+
+    private void execute() {
+        try {
+            method.invoke(bean);
+            executions.increment();
+        } catch (InvocationTargetException e) {
+            failures.increment();
+            e.getTargetException().printStackTrace();
+        } catch (Exception e) {
+            failures.increment();
+            e.printStackTrace();
+        } finally {
+            running.decrementAndGet();
+            if (type == Type.FIXED_DELAY && !cancelled) {
+                schedule(periodNanos);
+            }
+        }
+    }
+
+    private void scheduleNextCron() {
+        ZonedDateTime now = ZonedDateTime.now();
+        // 时间轮按 nanoTime 计时，触发时系统时钟可能还没到计划的那一秒；
+        // 从上一次计划时间往后计算，避免同一秒触发两次
+        ZonedDateTime base = lastScheduledTime != null && lastScheduledTime.isAfter(now) ? lastScheduledTime : now;
+        ZonedDateTime next = cron.next(base);
+        if (next != null) {
+            lastScheduledTime = next;
+            schedule(Duration.between(now, next).toNanos());
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        try {
+            timeout = timer.newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            // 定时器已停止
+            cancelled = true;
+        }
+        // cancel 与 schedule 并发时，确保新加入的定时器也被取消
+        if (cancelled) {
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /**
+     * 取消任务，正在执行的那一次不会被中断
+     */
+    public void cancel() {
+        cancelled = true;
+        Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 当前正在执行的次数
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * 成功执行的次数
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * 因上一次尚未结束或线程池拒绝而跳过的次数
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * 与上一次执行重叠的次数，只在 concurrent = true 时出现
+     */
+    public long getOverlappedCount() {
+        return overlapped.sum();
+    }
+
+    /**
+     * 执行抛出异常的次数
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledTask{name=" + name + ", type=" + type + ", executions=" + getExecutionCount()
+                + ", skipped=" + getSkippedCount() + ", overlapped=" + getOverlappedCount()
+                + ", failures=" + getFailureCount() + "}";
+    }
+}
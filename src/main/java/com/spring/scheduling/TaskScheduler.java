@@ -0,0 +1,148 @@
+package com.spring.scheduling;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 定时任务调度器
+ * 所有 @Scheduled 方法共用一个哈希时间轮计时，到期后交给固定大小的线程池执行
+ */
+public class TaskScheduler {
+
+    private final HashedWheelTimer timer;
+    private final ExecutorService executor;
+    private final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+
+    public TaskScheduler(int poolSize, long tickMillis, int ticksPerWheel) {
+        this.timer = new HashedWheelTimer("scheduling-timer", tickMillis, TimeUnit.MILLISECONDS, ticksPerWheel);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "scheduling-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 根据 @EnableScheduling 配置创建调度器，配置为 null 时使用默认值
+     */
+    public static TaskScheduler of(EnableScheduling config) {
+        if (config == null) {
+            return new TaskScheduler(4, 10, 512);
+        }
+        return new TaskScheduler(config.poolSize(), config.tickMillis(), config.ticksPerWheel());
+    }
+
+    /**
+     * 校验并创建 Bean 中所有 @Scheduled 方法对应的任务，但不启动
+     * 任一方法配置错误时抛出异常，不会创建任何任务
+     * 方法声明在 exposedBean 代理的接口上时通过代理调用，限流和追踪同样生效；否则直接调用目标对象
+     *
+     * @param bean        目标对象，用于查找 @Scheduled 方法
+     * @param exposedBean 容器中保存的对象，可能是 bean 的代理
+     */
+    public List<ScheduledTask> prepareScheduledMethods(Object bean, Object exposedBean, String beanName) {
+        List<ScheduledTask> prepared = new ArrayList<>();
+        for (Method method : findScheduledMethods(bean.getClass())) {
+            Object target = bean;
+            Method invoked = method;
+            if (exposedBean != bean && Proxy.isProxyClass(exposedBean.getClass())) {
+                try {
+                    invoked = exposedBean.getClass().getMethod(method.getName(), method.getParameterTypes());
+                    target = exposedBean;
+                } catch (NoSuchMethodException e) {
+                    // 方法不在代理的接口上，只能直接调用目标对象
+                }
+            }
+            prepared.add(new ScheduledTask(beanName, target, invoked, method.getAnnotation(Scheduled.class),
+                    timer, executor));
+        }
+        return prepared;
+    }
+
+    /**
+     * 启动 prepareScheduledMethods 创建的任务
+     */
+    public void start(List<ScheduledTask> prepared) {
+        for (ScheduledTask task : prepared) {
+            tasks.add(task);
+            task.start();
+        }
+    }
+
+    /**
+     * 取消并移除指定 Bean 的所有任务，用于 Bean 被替换时
+     *
+     * @return 取消的任务数
+     */
+    public int cancelScheduledTasks(String beanName) {
+        int count = 0;
+        for (ScheduledTask task : tasks) {
+            if (task.getBeanName().equals(beanName)) {
+                task.cancel();
+                tasks.remove(task);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 判断类及其父类中是否有 @Scheduled 方法
+     */
+    public static boolean hasScheduledMethods(Class<?> beanClass) {
+        return !findScheduledMethods(beanClass).isEmpty();
+    }
+
+    /**
+     * 查找类及其父类中的 @Scheduled 方法，子类和父类都标注同一方法时只取子类的声明
+     */
+    private static List<Method> findScheduledMethods(Class<?> beanClass) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> current = beanClass; current != null && current != Object.class;
+                current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Scheduled.class)) {
+                    methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()), method);
+                }
+            }
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    /**
+     * 获取所有已注册的任务（只读视图）
+     */
+    public List<ScheduledTask> getScheduledTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * 时间轮中尚未到期的定时器数量
+     */
+    public long getPendingTimeouts() {
+        return timer.pendingTimeouts();
+    }
+
+    /**
+     * 取消所有任务，停止时间轮和线程池
+     */
+    public void close() {
+        for (ScheduledTask task : tasks) {
+            task.cancel();
+        }
+        timer.stop();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.spring.scheduling;
+
+/**
+ * 时间轮中的一个定时器句柄
+ */
+public interface Timeout {
+
+    /**
+     * 获取关联的任务
+     */
+    TimerTask task();
+
+    /**
+     * 是否已经到期执行
+     */
+    boolean isExpired();
+
+    /**
+     * 是否已经取消
+     */
+    boolean isCancelled();
+
+    /**
+     * 取消定时器，O(1)
+     *
+     * @return 取消成功返回 true，已到期或已取消返回 false
+     */
+    boolean cancel();
+}
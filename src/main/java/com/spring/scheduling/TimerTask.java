@@ -0,0 +1,10 @@
+package com.spring.scheduling;
+
+/**
+ * 时间轮定时任务
+ * 在时间轮的工作线程上执行，应尽快返回，耗时操作应交给线程池
+ */
+public interface TimerTask {
+
+    void run(Timeout timeout) throws Exception;
+}
@@ -0,0 +1,184 @@
+package com.spring;
+
+import com.spring.aop.AopProxy;
+import com.spring.aop.limit.Limiter;
+import com.spring.refresh.beans.Controller;
+import com.spring.refresh.beans.Creations;
+import com.spring.refresh.beans.Formatter;
+import com.spring.refresh.beans.Greeter;
+import com.spring.refresh.beans.GreeterImpl;
+import com.spring.refresh.beans.RefreshTestConfig;
+import com.spring.refresh.changed.BrokenGreeter;
+import com.spring.refresh.changed.IncompatibleGreeter;
+import com.spring.refresh.changed.LoudGreeter;
+import com.spring.scheduling.ScheduledTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ImplApplicationContextRefreshTest {
+
+    private ImplApplicationContext context;
+
+    @Before
+    public void createContext() {
+        context = new ImplApplicationContext(RefreshTestConfig.class);
+        Creations.BEAN_NAMES.clear();
+        IncompatibleGreeter.RUNS.set(0);
+    }
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    private Greeter greeter() {
+        return (Greeter) context.getBean("greeter");
+    }
+
+    private Controller controller() {
+        return (Controller) context.getBean("greetingController");
+    }
+
+    private List<ScheduledTask> greeterTasks() {
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for (ScheduledTask task : context.getTaskScheduler().getScheduledTasks()) {
+            if ("greeter".equals(task.getBeanName())) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private static Class<?> targetClass(Object bean) {
+        return ((AopProxy) Proxy.getInvocationHandler(bean)).getTarget().getClass();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void dependenciesAreRebuiltFirst() {
+        Formatter oldFormatter = (Formatter) context.getBean("formatter");
+
+        List<String> order = context.refreshBeans(Arrays.asList("greeter", "formatter"));
+
+        assertEquals(Arrays.asList("formatter", "greeter"), order);
+        assertEquals(order, Creations.BEAN_NAMES);
+        Formatter formatter = (Formatter) context.getBean("formatter");
+        assertNotSame(oldFormatter, formatter);
+        assertSame(formatter, greeter().getFormatter());
+    }
+
+    @Test
+    public void refreshedBeanIsReinjectedIntoProxiedDependent() {
+        Controller controller = controller();
+        Greeter oldGreeter = greeter();
+        assertTrue(Proxy.isProxyClass(controller.getClass()));
+
+        assertEquals(Collections.singletonList("greeter"), context.refreshBeans(Collections.singleton("greeter")));
+
+        // 依赖方本身不重建，新 Bean 注入到代理的目标对象上
+        assertSame(controller, controller());
+        assertNotSame(oldGreeter, greeter());
+        assertSame(greeter(), controller.getGreeter());
+        assertEquals("hello!", controller.handle());
+    }
+
+    @Test
+    public void changedClassReplacesDefinitionAndLimiter() {
+        Limiter oldLimiter = context.getLimiterRegistry().getLimiter("greeting");
+
+        context.refresh(Collections.singletonList(LoudGreeter.class));
+
+        assertEquals(LoudGreeter.class, targetClass(greeter()));
+        assertEquals("HELLO!", controller().handle());
+        Limiter limiter = context.getLimiterRegistry().getLimiter("greeting");
+        assertNotSame(oldLimiter, limiter);
+        assertTrue(limiter.getConfiguration().contains("permitsPerSecond=5.0"));
+    }
+
+    @Test
+    public void scheduledTasksAreSwappedAfterRefresh() {
+        Greeter oldGreeter = greeter();
+        List<ScheduledTask> oldTasks = greeterTasks();
+        assertEquals(1, oldTasks.size());
+
+        context.refreshBeans(Collections.singleton("greeter"));
+
+        assertTrue(oldTasks.get(0).isCancelled());
+        List<ScheduledTask> tasks = greeterTasks();
+        assertEquals(1, tasks.size());
+        assertFalse(tasks.get(0).isCancelled());
+        // 取消前已交给线程池的那一次可能仍在执行
+        sleep(50);
+        int oldTicks = oldGreeter.getTicks();
+        sleep(150);
+        assertEquals(oldTicks, oldGreeter.getTicks());
+        assertTrue(greeter().getTicks() > 0);
+    }
+
+    @Test
+    public void failedCreationKeepsOldBeansAndDefinition() {
+        Greeter oldGreeter = greeter();
+        Limiter oldLimiter = context.getLimiterRegistry().getLimiter("greeting");
+        List<ScheduledTask> oldTasks = greeterTasks();
+
+        assertThrows(ImplApplicationContext.BeanCreationException.class,
+                () -> context.refresh(Collections.singletonList(BrokenGreeter.class)));
+
+        assertSame(oldGreeter, greeter());
+        assertSame(oldGreeter, controller().getGreeter());
+        assertSame(oldLimiter, context.getLimiterRegistry().getLimiter("greeting"));
+        assertEquals(oldTasks, greeterTasks());
+        assertFalse(oldTasks.get(0).isCancelled());
+        int ticks = oldGreeter.getTicks();
+        sleep(100);
+        assertTrue(oldGreeter.getTicks() > ticks);
+
+        // Bean 定义已恢复，依赖记录也恢复，formatter 重建后仍会注入到旧的 greeter
+        context.refreshBeans(Collections.singleton("formatter"));
+        assertSame(context.getBean("formatter"), oldGreeter.getFormatter());
+        context.refreshBeans(Collections.singleton("greeter"));
+        assertEquals(GreeterImpl.class, targetClass(greeter()));
+        assertSame(greeter(), controller().getGreeter());
+    }
+
+    @Test
+    public void failedReinjectionRollsBackLimitersAndTasks() {
+        Greeter oldGreeter = greeter();
+        Limiter oldLimiter = context.getLimiterRegistry().getLimiter("greeting");
+        List<ScheduledTask> oldTasks = greeterTasks();
+
+        // 新 Bean 已创建并代理，重新注入到 Greeter 字段时类型校验失败
+        assertThrows(ImplApplicationContext.BeanCreationException.class,
+                () -> context.refresh(Collections.singletonList(IncompatibleGreeter.class)));
+
+        assertSame(oldGreeter, greeter());
+        assertSame(oldGreeter, controller().getGreeter());
+        assertSame(oldLimiter, context.getLimiterRegistry().getLimiter("greeting"));
+        assertEquals(oldTasks, greeterTasks());
+        assertFalse(oldTasks.get(0).isCancelled());
+        sleep(100);
+        assertEquals(0, IncompatibleGreeter.RUNS.get());
+        assertEquals("hello!", controller().handle());
+    }
+}
@@ -0,0 +1,107 @@
+package com.spring.aop;
+
+import com.wangliang.service.OrderService;
+import com.wangliang.service.OrderServiceImpl;
+import com.wangliang.service.UserService;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PointcutParserTest {
+
+    public interface Repository {
+        String find(String key, int limit);
+
+        void save();
+    }
+
+    public static class RepositoryImpl implements Repository {
+        @Override
+        public String find(String key, int limit) {
+            return key;
+        }
+
+        @Override
+        public void save() {
+        }
+    }
+
+    private static Method method(Class<?> type, String name, Class<?>... parameterTypes) throws Exception {
+        return type.getMethod(name, parameterTypes);
+    }
+
+    @Test
+    public void packageWildcardMatchesClassesInPackage() throws Exception {
+        Method createOrder = method(OrderServiceImpl.class, "createOrder", String.class);
+        assertTrue(PointcutParser.matches("execution(* com.wangliang.service.*.*(..))", createOrder));
+        assertTrue(PointcutParser.matches("execution(* com.wangliang..*.*(..))", createOrder));
+        assertFalse(PointcutParser.matches("execution(* com.wangliang.*.*(..))", createOrder));
+    }
+
+    @Test
+    public void declaringTypeMustMatch() throws Exception {
+        Method createUser = method(UserService.class, "createUser", String.class);
+        assertTrue(PointcutParser.matches("execution(* com.wangliang.service.UserService.*(..))", createUser));
+        assertTrue(PointcutParser.matches("execution(* UserService.createUser(..))", createUser));
+        assertFalse(PointcutParser.matches("execution(* com.other.Foo.*(..))", createUser));
+        assertFalse(PointcutParser.matches("execution(* com.wangliang.service.OrderService.*(..))", createUser));
+    }
+
+    @Test
+    public void interfaceAndImplementationBothMatch() throws Exception {
+        Method interfaceMethod = method(OrderService.class, "createOrder", String.class);
+        Method implMethod = method(OrderServiceImpl.class, "createOrder", String.class);
+        String onInterface = "execution(* com.wangliang.service.OrderService.createOrder(..))";
+        String onImpl = "execution(* com.wangliang.service.OrderServiceImpl.createOrder(..))";
+
+        assertTrue(PointcutParser.matches(onInterface, implMethod, OrderServiceImpl.class));
+        assertTrue(PointcutParser.matches(onImpl, interfaceMethod, OrderServiceImpl.class));
+        assertTrue(PointcutParser.matches(onInterface, interfaceMethod));
+        assertFalse(PointcutParser.matches(onImpl, interfaceMethod));
+    }
+
+    @Test
+    public void nestedTypes() throws Exception {
+        Method find = method(RepositoryImpl.class, "find", String.class, int.class);
+        assertTrue(PointcutParser.matches("execution(* com.spring.aop.PointcutParserTest.Repository.find(..))",
+                find, RepositoryImpl.class));
+        assertTrue(PointcutParser.matches("execution(* com.spring.aop.PointcutParserTest$RepositoryImpl.*(..))",
+                find));
+    }
+
+    @Test
+    public void parameters() throws Exception {
+        Method find = method(RepositoryImpl.class, "find", String.class, int.class);
+        Method save = method(RepositoryImpl.class, "save");
+        assertTrue(PointcutParser.matches("execution(* *.find(String, int))", find));
+        assertTrue(PointcutParser.matches("execution(* *.find(java.lang.String, ..))", find));
+        assertTrue(PointcutParser.matches("execution(* *.find(.., int))", find));
+        assertTrue(PointcutParser.matches("execution(* *.find(*, *))", find));
+        assertFalse(PointcutParser.matches("execution(* *.find(String))", find));
+        assertFalse(PointcutParser.matches("execution(* *.find(int, ..))", find));
+        assertTrue(PointcutParser.matches("execution(* *.save())", save));
+        assertFalse(PointcutParser.matches("execution(* *.*())", find));
+    }
+
+    @Test
+    public void modifiersAndReturnType() throws Exception {
+        Method find = method(RepositoryImpl.class, "find", String.class, int.class);
+        assertTrue(PointcutParser.matches("execution(public String *.find(..))", find));
+        assertTrue(PointcutParser.matches("execution(java.lang.String *.f*(..))", find));
+        assertFalse(PointcutParser.matches("execution(void *.find(..))", find));
+        assertFalse(PointcutParser.matches("execution(private * *.find(..))", find));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsExpressionWithoutParameters() {
+        PointcutParser.validate("execution(* com.wangliang.service.*.*)");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedDesignator() {
+        PointcutParser.validate("within(com.wangliang.service.*)");
+    }
+}
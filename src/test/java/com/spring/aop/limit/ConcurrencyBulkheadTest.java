@@ -0,0 +1,136 @@
+package com.spring.aop.limit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyBulkheadTest {
+
+    private static void awaitQueued(ConcurrencyBulkhead bulkhead, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (bulkhead.getQueuedCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, bulkhead.getQueuedCount());
+    }
+
+    @Test
+    public void failFastRejectsAboveLimit() {
+        ConcurrencyBulkhead bulkhead = new ConcurrencyBulkhead("fast", 2, LimitPolicy.FAIL_FAST, 0, 0);
+        bulkhead.acquire();
+        bulkhead.acquire();
+        LimitExceededException e = assertThrows(LimitExceededException.class, bulkhead::acquire);
+        assertEquals("fast", e.getLimiterName());
+        assertEquals(2, bulkhead.getActiveCount());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(3, bulkhead.getPermittedCount());
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getWaitedCount());
+    }
+
+    @Test
+    public void boundedWaitTimesOut() {
+        ConcurrencyBulkhead bulkhead = new ConcurrencyBulkhead("timeout", 1, LimitPolicy.BOUNDED_WAIT, 50, 0);
+        bulkhead.acquire();
+        long start = System.nanoTime();
+        assertThrows(LimitExceededException.class, bulkhead::acquire);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(1, bulkhead.getActiveCount());
+    }
+
+    @Test
+    public void boundedWaitGetsReleasedPermit() throws Exception {
+        ConcurrencyBulkhead bulkhead = new ConcurrencyBulkhead("handoff", 1, LimitPolicy.BOUNDED_WAIT, 2000, 0);
+        bulkhead.acquire();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                return;
+            }
+            bulkhead.release();
+        });
+        releaser.start();
+        bulkhead.acquire();
+        releaser.join();
+        assertEquals(1, bulkhead.getWaitedCount());
+        assertEquals(2, bulkhead.getPermittedCount());
+        assertEquals(1, bulkhead.getActiveCount());
+    }
+
+    @Test
+    public void queueRejectsWhenQueueIsFull() throws Exception {
+        ConcurrencyBulkhead bulkhead = new ConcurrencyBulkhead("queue", 1, LimitPolicy.QUEUE, 0, 1);
+        bulkhead.acquire();
+        Thread queued = new Thread(bulkhead::acquire);
+        queued.start();
+        awaitQueued(bulkhead, 1);
+
+        assertThrows(LimitExceededException.class, bulkhead::acquire);
+        bulkhead.release();
+        queued.join();
+        assertEquals(1, bulkhead.getActiveCount());
+        assertEquals(0, bulkhead.getQueuedCount());
+        assertEquals(1, bulkhead.getWaitedCount());
+        assertEquals(1, bulkhead.getRejectedCount());
+    }
+
+    private static void stress(ConcurrencyBulkhead bulkhead, int maxConcurrentCalls) throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        int threads = 16;
+        int callsPerThread = 200;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < callsPerThread; j++) {
+                    bulkhead.acquire();
+                    try {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        active.decrementAndGet();
+                    } finally {
+                        bulkhead.release();
+                    }
+                }
+            });
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            assertTrue("worker did not finish, possible lost wake-up", !thread.isAlive());
+        }
+        assertTrue("maxActive=" + maxActive.get(), maxActive.get() <= maxConcurrentCalls);
+        assertEquals(threads * callsPerThread, bulkhead.getPermittedCount());
+        assertEquals(0, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getActiveCount());
+        assertEquals(0, bulkhead.getQueuedCount());
+    }
+
+    @Test
+    public void queueNeverExceedsLimitUnderContention() throws Exception {
+        stress(new ConcurrencyBulkhead("stress-queue", 3, LimitPolicy.QUEUE, 0, Integer.MAX_VALUE), 3);
+    }
+
+    @Test
+    public void boundedWaitNeverExceedsLimitUnderContention() throws Exception {
+        stress(new ConcurrencyBulkhead("stress-wait", 3, LimitPolicy.BOUNDED_WAIT, 10000, 0), 3);
+    }
+
+    @Test
+    public void rejectsNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConcurrencyBulkhead("bad", 0, LimitPolicy.FAIL_FAST, 0, 0));
+    }
+}
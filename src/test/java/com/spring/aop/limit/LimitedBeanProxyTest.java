@@ -0,0 +1,79 @@
+package com.spring.aop.limit;
+
+import com.spring.ImplApplicationContext;
+import com.spring.aop.limit.container.LimitTestConfig;
+import com.spring.aop.limit.container.OrderService;
+import com.spring.aop.limit.container.PaymentService;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class LimitedBeanProxyTest {
+
+    private final ImplApplicationContext context = new ImplApplicationContext(LimitTestConfig.class);
+
+    @After
+    public void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void annotatedInterfaceBeansAreProxied() {
+        Object orderService = context.getBean("orderService");
+        Object paymentService = context.getBean("paymentService");
+        assertTrue(Proxy.isProxyClass(orderService.getClass()));
+        assertTrue(Proxy.isProxyClass(paymentService.getClass()));
+        assertTrue(context.getLimiterRegistry().getLimiter("orders") instanceof TokenBucketRateLimiter);
+        assertTrue(context.getLimiterRegistry().getLimiter("payments") instanceof ConcurrencyBulkhead);
+    }
+
+    @Test
+    public void circularDependencyReceivesTheSameProxy() {
+        OrderService orderService = (OrderService) context.getBean("orderService");
+        PaymentService paymentService = (PaymentService) context.getBean("paymentService");
+        // 无论哪一方先创建，注入的早期引用都必须是最终暴露的代理
+        assertSame(paymentService, orderService.getPaymentService());
+        assertSame(orderService, paymentService.getOrderService());
+    }
+
+    @Test
+    public void methodsSharingANameShareOneLimiter() {
+        OrderService orderService = (OrderService) context.getBean("orderService");
+        assertEquals("ordered", orderService.placeOrder());
+        assertThrows(IllegalStateException.class, orderService::cancelOrder);
+        // 两个方法共用容量为 2 的 "orders" 令牌桶
+        LimitExceededException e = assertThrows(LimitExceededException.class, orderService::placeOrder);
+        assertEquals("orders", e.getLimiterName());
+
+        Limiter limiter = context.getLimiterRegistry().getLimiter("orders");
+        assertEquals(2, limiter.getPermittedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void proxiedCallsThroughEarlyReferenceAreLimited() {
+        PaymentService paymentService = (PaymentService) context.getBean("paymentService");
+        OrderService injected = paymentService.getOrderService();
+        injected.placeOrder();
+        injected.placeOrder();
+        assertThrows(LimitExceededException.class, injected::placeOrder);
+    }
+
+    @Test
+    public void containersDoNotShareLimiters() {
+        try (ImplApplicationContext other = new ImplApplicationContext(LimitTestConfig.class)) {
+            OrderService orderService = (OrderService) context.getBean("orderService");
+            orderService.placeOrder();
+            orderService.placeOrder();
+            assertThrows(LimitExceededException.class, orderService::placeOrder);
+
+            assertEquals("ordered", ((OrderService) other.getBean("orderService")).placeOrder());
+        }
+    }
+}
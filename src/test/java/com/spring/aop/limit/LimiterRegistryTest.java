@@ -0,0 +1,76 @@
+package com.spring.aop.limit;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class LimiterRegistryTest {
+
+    private static TokenBucketRateLimiter rateLimiter(String name, double permitsPerSecond) {
+        return new TokenBucketRateLimiter(name, permitsPerSecond, 1, LimitPolicy.FAIL_FAST, 0, 0);
+    }
+
+    @Test
+    public void sameNameAndConfigShareOneLimiter() {
+        LimiterRegistry registry = new LimiterRegistry();
+        Limiter first = registry.register(rateLimiter("orders", 10), false);
+        Limiter second = registry.register(rateLimiter("orders", 10), false);
+        assertSame(first, second);
+        assertSame(first, registry.getLimiter("orders"));
+    }
+
+    @Test
+    public void conflictingConfigIsRejected() {
+        LimiterRegistry registry = new LimiterRegistry();
+        Limiter first = registry.register(rateLimiter("orders", 10), false);
+        assertThrows(IllegalStateException.class, () -> registry.register(rateLimiter("orders", 20), false));
+        assertThrows(IllegalStateException.class, () -> registry.register(
+                new ConcurrencyBulkhead("orders", 10, LimitPolicy.FAIL_FAST, 0, 0), false));
+        assertSame(first, registry.getLimiter("orders"));
+    }
+
+    @Test
+    public void replaceSwapsLimiterWithChangedConfig() {
+        LimiterRegistry registry = new LimiterRegistry();
+        registry.register(rateLimiter("orders", 10), false);
+        Limiter replacement = rateLimiter("orders", 20);
+        assertSame(replacement, registry.register(replacement, true));
+        assertSame(replacement, registry.getLimiter("orders"));
+        // 配置相同时即使 replace 为 true 也保留已有的实例
+        assertSame(replacement, registry.register(rateLimiter("orders", 20), true));
+    }
+
+    @Test
+    public void restoreReturnsToSnapshot() {
+        LimiterRegistry registry = new LimiterRegistry();
+        Limiter orders = registry.register(rateLimiter("orders", 10), false);
+        Map<String, Limiter> snapshot = registry.snapshot();
+
+        registry.register(rateLimiter("orders", 20), true);
+        registry.register(rateLimiter("users", 5), false);
+        registry.restore(snapshot);
+
+        assertSame(orders, registry.getLimiter("orders"));
+        assertNull(registry.getLimiter("users"));
+    }
+
+    @Test
+    public void registriesAreIndependent() {
+        LimiterRegistry first = new LimiterRegistry();
+        LimiterRegistry second = new LimiterRegistry();
+        first.register(rateLimiter("orders", 10), false);
+        // 另一个注册表中的同名限流器可以使用不同配置
+        second.register(rateLimiter("orders", 20), false);
+        assertNotSame(first.getLimiter("orders"), second.getLimiter("orders"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void limitersViewIsReadOnly() {
+        new LimiterRegistry().getLimiters().put("orders", rateLimiter("orders", 10));
+    }
+}
@@ -0,0 +1,131 @@
+package com.spring.aop.limit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    private static void awaitQueued(TokenBucketRateLimiter limiter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (limiter.getQueuedCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, limiter.getQueuedCount());
+    }
+
+    @Test
+    public void failFastAllowsBurstUpToCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("burst", 1, 5, LimitPolicy.FAIL_FAST, 0, 0);
+        assertEquals(5, limiter.getAvailablePermits());
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+        LimitExceededException e = assertThrows(LimitExceededException.class, limiter::acquire);
+        assertEquals("burst", e.getLimiterName());
+        assertEquals(0, limiter.getAvailablePermits());
+        assertEquals(5, limiter.getPermittedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(0, limiter.getWaitedCount());
+    }
+
+    @Test
+    public void tokensRefillOverTime() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("refill", 100, 1, LimitPolicy.FAIL_FAST, 0, 0);
+        limiter.acquire();
+        assertThrows(LimitExceededException.class, limiter::acquire);
+        Thread.sleep(20);
+        limiter.acquire();
+        assertEquals(2, limiter.getPermittedCount());
+    }
+
+    @Test
+    public void capacityDefaultsToOneSecondOfPermits() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("default", 2.5, 0, LimitPolicy.FAIL_FAST, 0, 0);
+        assertEquals(3, limiter.getCapacity());
+    }
+
+    @Test
+    public void boundedWaitWaitsForNextToken() {
+        // 每 50ms 一个令牌
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("wait", 20, 1, LimitPolicy.BOUNDED_WAIT, 200, 0);
+        limiter.acquire();
+        long start = System.nanoTime();
+        limiter.acquire();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(2, limiter.getPermittedCount());
+        assertEquals(1, limiter.getWaitedCount());
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void boundedWaitRejectsWhenTokenIsTooFarAway() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("short", 1, 1, LimitPolicy.BOUNDED_WAIT, 10, 0);
+        limiter.acquire();
+        long start = System.nanoTime();
+        assertThrows(LimitExceededException.class, limiter::acquire);
+        // 拿不到令牌时立即拒绝，不会先等待
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void queueRejectsWhenQueueIsFull() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("queue", 10, 1, LimitPolicy.QUEUE, 0, 1);
+        limiter.acquire();
+        Thread queued = new Thread(limiter::acquire);
+        queued.start();
+        awaitQueued(limiter, 1);
+
+        assertThrows(LimitExceededException.class, limiter::acquire);
+        queued.join();
+        assertEquals(0, limiter.getQueuedCount());
+        assertEquals(2, limiter.getPermittedCount());
+        assertEquals(1, limiter.getWaitedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void concurrentCallersDoNotExceedRate() throws Exception {
+        int permitsPerSecond = 1000;
+        int capacity = 10;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("stress", permitsPerSecond, capacity,
+                LimitPolicy.FAIL_FAST, 0, 0);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(300);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    try {
+                        limiter.acquire();
+                    } catch (LimitExceededException e) {
+                        // 预期中的拒绝
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long permitted = limiter.getPermittedCount();
+        assertTrue("permitted=" + permitted, permitted <= capacity + permitsPerSecond * seconds + 1);
+        assertTrue("permitted=" + permitted, permitted >= permitsPerSecond * 0.3 * 0.5);
+        assertTrue(limiter.getRejectedCount() > 0);
+    }
+
+    @Test
+    public void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter("bad", 0, 1, LimitPolicy.FAIL_FAST, 0, 0));
+    }
+}
@@ -0,0 +1,7 @@
+package com.spring.aop.limit.container;
+
+import com.spring.ComponentScan;
+
+@ComponentScan("com.spring.aop.limit.container")
+public class LimitTestConfig {
+}
@@ -0,0 +1,10 @@
+package com.spring.aop.limit.container;
+
+public interface OrderService {
+
+    String placeOrder();
+
+    void cancelOrder();
+
+    PaymentService getPaymentService();
+}
@@ -0,0 +1,30 @@
+package com.spring.aop.limit.container;
+
+import com.spring.Autowired;
+import com.spring.Component;
+import com.spring.aop.limit.RateLimited;
+
+@Component("orderService")
+public class OrderServiceImpl implements OrderService {
+
+    // 与 PaymentServiceImpl 互相依赖，先创建的一方会通过早期代理注入给另一方
+    @Autowired
+    private PaymentService paymentService;
+
+    @Override
+    @RateLimited(name = "orders", permitsPerSecond = 0.1, capacity = 2)
+    public String placeOrder() {
+        return "ordered";
+    }
+
+    @Override
+    @RateLimited(name = "orders", permitsPerSecond = 0.1, capacity = 2)
+    public void cancelOrder() {
+        throw new IllegalStateException("order already shipped");
+    }
+
+    @Override
+    public PaymentService getPaymentService() {
+        return paymentService;
+    }
+}
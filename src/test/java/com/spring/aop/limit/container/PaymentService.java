@@ -0,0 +1,8 @@
+package com.spring.aop.limit.container;
+
+public interface PaymentService {
+
+    String pay();
+
+    OrderService getOrderService();
+}
@@ -0,0 +1,23 @@
+package com.spring.aop.limit.container;
+
+import com.spring.Autowired;
+import com.spring.Component;
+import com.spring.aop.limit.Bulkhead;
+
+@Component("paymentService")
+public class PaymentServiceImpl implements PaymentService {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Override
+    @Bulkhead(name = "payments", maxConcurrentCalls = 1)
+    public String pay() {
+        return "paid";
+    }
+
+    @Override
+    public OrderService getOrderService() {
+        return orderService;
+    }
+}
@@ -0,0 +1,134 @@
+package com.spring.aop.trace;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodTracerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void restoreDefaults() {
+        MethodTracer.setEnabled(true);
+        MethodTracer.setBufferCapacity(1 << 14);
+    }
+
+    /**
+     * 在新线程中执行 body，线程保持存活直到导出完成，返回该线程的追踪结果
+     */
+    private TraceReader.ThreadTrace traceInThread(String threadName, Runnable body) throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch dumped = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            body.run();
+            recorded.countDown();
+            try {
+                dumped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, threadName);
+        thread.start();
+        try {
+            recorded.await();
+            Path file = folder.getRoot().toPath().resolve(threadName + ".bin");
+            assertTrue(MethodTracer.dump(file));
+            for (TraceReader.ThreadTrace trace : TraceReader.read(file).getThreads()) {
+                if (trace.getThreadName().equals(threadName)) {
+                    return trace;
+                }
+            }
+            fail("No trace for thread " + threadName);
+            return null;
+        } finally {
+            dumped.countDown();
+            thread.join();
+        }
+    }
+
+    @Test
+    public void dumpAndReadRoundTrip() throws Exception {
+        int outer = MethodTracer.registerMethod("RoundTrip.outer");
+        int inner = MethodTracer.registerMethod("RoundTrip.inner");
+        int pending = MethodTracer.registerMethod("RoundTrip.pending");
+
+        TraceReader.ThreadTrace trace = traceInThread("trace-round-trip", () -> {
+            long outerStart = MethodTracer.enter(outer);
+            long innerStart = MethodTracer.enter(inner);
+            MethodTracer.exit(inner, innerStart);
+            MethodTracer.exit(outer, outerStart);
+            MethodTracer.enter(pending);
+        });
+
+        List<TraceReader.Span> spans = trace.getSpans();
+        assertEquals(3, spans.size());
+        assertEquals("RoundTrip.outer", spans.get(0).getMethodName());
+        assertEquals(0, spans.get(0).getDepth());
+        assertTrue(spans.get(0).isComplete());
+        assertEquals("RoundTrip.inner", spans.get(1).getMethodName());
+        assertEquals(1, spans.get(1).getDepth());
+        assertTrue(spans.get(1).isComplete());
+        assertTrue(spans.get(0).getDurationNanos() >= spans.get(1).getDurationNanos());
+        assertEquals(spans.get(0).getDurationNanos() - spans.get(1).getDurationNanos(), spans.get(0).getSelfNanos());
+        // 导出时还没有退出的调用
+        assertEquals("RoundTrip.pending", spans.get(2).getMethodName());
+        assertFalse(spans.get(2).isComplete());
+    }
+
+    @Test
+    public void wrappedBufferKeepsNewestEvents() throws Exception {
+        int call = MethodTracer.registerMethod("Wrapped.call");
+        MethodTracer.setBufferCapacity(8);
+
+        TraceReader.ThreadTrace trace = traceInThread("trace-wrapped", () -> {
+            for (int i = 0; i < 10; i++) {
+                MethodTracer.exit(call, MethodTracer.enter(call));
+            }
+        });
+
+        // 20 个事件写入容量为 8 的缓冲区；快照保留最新的 capacity - 1 个事件，开头的退出事件没有对应的进入，被忽略
+        List<TraceReader.Span> spans = trace.getSpans();
+        assertEquals(3, spans.size());
+        long previousStart = Long.MIN_VALUE;
+        for (TraceReader.Span span : spans) {
+            assertEquals("Wrapped.call", span.getMethodName());
+            assertEquals(0, span.getDepth());
+            assertTrue(span.isComplete());
+            assertTrue(span.getStartNanos() > previousStart);
+            previousStart = span.getStartNanos();
+        }
+    }
+
+    @Test
+    public void disabledTracerRecordsNothing() throws Exception {
+        int call = MethodTracer.registerMethod("Disabled.call");
+        MethodTracer.setEnabled(false);
+
+        Path file = folder.getRoot().toPath().resolve("disabled.bin");
+        long[] start = new long[1];
+        Thread thread = new Thread(() -> {
+            start[0] = MethodTracer.enter(call);
+            MethodTracer.exit(call, start[0]);
+        }, "trace-disabled");
+        thread.start();
+        thread.join();
+
+        assertEquals(MethodTracer.DISABLED, start[0]);
+        assertTrue(MethodTracer.dump(file));
+        for (TraceReader.ThreadTrace trace : TraceReader.read(file).getThreads()) {
+            assertFalse(trace.getThreadName().equals("trace-disabled"));
+        }
+    }
+}
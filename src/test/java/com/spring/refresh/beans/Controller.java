@@ -0,0 +1,8 @@
+package com.spring.refresh.beans;
+
+public interface Controller {
+
+    String handle();
+
+    Greeter getGreeter();
+}
@@ -0,0 +1,15 @@
+package com.spring.refresh.beans;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 按创建顺序记录 Bean 名称，用于校验重建顺序
+ */
+public final class Creations {
+
+    public static final List<String> BEAN_NAMES = new CopyOnWriteArrayList<>();
+
+    private Creations() {
+    }
+}
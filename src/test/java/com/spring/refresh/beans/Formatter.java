@@ -0,0 +1,15 @@
+package com.spring.refresh.beans;
+
+import com.spring.Component;
+
+@Component("formatter")
+public class Formatter {
+
+    public Formatter() {
+        Creations.BEAN_NAMES.add("formatter");
+    }
+
+    public String format(String text) {
+        return text + "!";
+    }
+}
@@ -0,0 +1,10 @@
+package com.spring.refresh.beans;
+
+public interface Greeter {
+
+    String greet();
+
+    int getTicks();
+
+    Formatter getFormatter();
+}
@@ -0,0 +1,42 @@
+package com.spring.refresh.beans;
+
+import com.spring.Autowired;
+import com.spring.Component;
+import com.spring.aop.limit.RateLimited;
+import com.spring.scheduling.Scheduled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component("greeter")
+public class GreeterImpl implements Greeter {
+
+    private final AtomicInteger ticks = new AtomicInteger();
+
+    @Autowired
+    private volatile Formatter formatter;
+
+    public GreeterImpl() {
+        Creations.BEAN_NAMES.add("greeter");
+    }
+
+    @Override
+    @RateLimited(name = "greeting", permitsPerSecond = 1000)
+    public String greet() {
+        return formatter.format("hello");
+    }
+
+    @Scheduled(fixedRate = 20)
+    public void tick() {
+        ticks.incrementAndGet();
+    }
+
+    @Override
+    public int getTicks() {
+        return ticks.get();
+    }
+
+    @Override
+    public Formatter getFormatter() {
+        return formatter;
+    }
+}
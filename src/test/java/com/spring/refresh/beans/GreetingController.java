@@ -0,0 +1,24 @@
+package com.spring.refresh.beans;
+
+import com.spring.Autowired;
+import com.spring.Component;
+import com.spring.aop.limit.Bulkhead;
+
+@Component("greetingController")
+public class GreetingController implements Controller {
+
+    // 增量刷新会在其他线程使用期间替换该字段，因此声明为 volatile
+    @Autowired
+    private volatile Greeter greeter;
+
+    @Override
+    @Bulkhead(name = "controller", maxConcurrentCalls = 10)
+    public String handle() {
+        return greeter.greet();
+    }
+
+    @Override
+    public Greeter getGreeter() {
+        return greeter;
+    }
+}
@@ -0,0 +1,9 @@
+package com.spring.refresh.beans;
+
+import com.spring.ComponentScan;
+import com.spring.scheduling.EnableScheduling;
+
+@ComponentScan("com.spring.refresh.beans")
+@EnableScheduling(poolSize = 2, tickMillis = 5, ticksPerWheel = 64)
+public class RefreshTestConfig {
+}
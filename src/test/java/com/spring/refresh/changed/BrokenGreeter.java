@@ -0,0 +1,31 @@
+package com.spring.refresh.changed;
+
+import com.spring.Component;
+import com.spring.refresh.beans.Formatter;
+import com.spring.refresh.beans.Greeter;
+
+/**
+ * 构造时失败的新版本
+ */
+@Component("greeter")
+public class BrokenGreeter implements Greeter {
+
+    public BrokenGreeter() {
+        throw new IllegalStateException("expected by test");
+    }
+
+    @Override
+    public String greet() {
+        return null;
+    }
+
+    @Override
+    public int getTicks() {
+        return 0;
+    }
+
+    @Override
+    public Formatter getFormatter() {
+        return null;
+    }
+}
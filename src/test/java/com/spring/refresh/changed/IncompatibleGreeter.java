@@ -0,0 +1,27 @@
+package com.spring.refresh.changed;
+
+import com.spring.Component;
+import com.spring.aop.limit.RateLimited;
+import com.spring.scheduling.Scheduled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 能创建成功、但不再实现 Greeter 的新版本，重新注入时类型校验失败
+ * 此时它的限流器已经注册、定时任务已经创建，用于校验回滚
+ */
+@Component("greeter")
+public class IncompatibleGreeter implements Runnable {
+
+    public static final AtomicInteger RUNS = new AtomicInteger();
+
+    @Override
+    @RateLimited(name = "greeting", permitsPerSecond = 5)
+    public void run() {
+    }
+
+    @Scheduled(fixedRate = 20)
+    public void tick() {
+        RUNS.incrementAndGet();
+    }
+}
@@ -0,0 +1,43 @@
+package com.spring.refresh.changed;
+
+import com.spring.Autowired;
+import com.spring.Component;
+import com.spring.aop.limit.RateLimited;
+import com.spring.refresh.beans.Formatter;
+import com.spring.refresh.beans.Greeter;
+import com.spring.scheduling.Scheduled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GreeterImpl 的新版本，限流配置发生了变化
+ */
+@Component("greeter")
+public class LoudGreeter implements Greeter {
+
+    private final AtomicInteger ticks = new AtomicInteger();
+
+    @Autowired
+    private volatile Formatter formatter;
+
+    @Override
+    @RateLimited(name = "greeting", permitsPerSecond = 5)
+    public String greet() {
+        return formatter.format("HELLO");
+    }
+
+    @Scheduled(fixedRate = 20)
+    public void tick() {
+        ticks.incrementAndGet();
+    }
+
+    @Override
+    public int getTicks() {
+        return ticks.get();
+    }
+
+    @Override
+    public Formatter getFormatter() {
+        return formatter;
+    }
+}
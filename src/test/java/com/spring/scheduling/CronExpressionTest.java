@@ -0,0 +1,90 @@
+package com.spring.scheduling;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CronExpressionTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private static ZonedDateTime time(int year, int month, int day, int hour, int minute, int second) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, UTC);
+    }
+
+    private static ZonedDateTime next(String expression, ZonedDateTime from) {
+        return CronExpression.parse(expression).next(from);
+    }
+
+    @Test
+    public void nextIsStrictlyAfterFrom() {
+        assertEquals(time(2026, 3, 11, 12, 0, 0), next("0 0 12 * * *", time(2026, 3, 10, 12, 0, 0)));
+        assertEquals(time(2026, 3, 10, 12, 0, 0), next("0 0 12 * * *", time(2026, 3, 10, 11, 59, 59)));
+    }
+
+    @Test
+    public void ranges() {
+        assertEquals(time(2026, 3, 10, 9, 0, 0), next("0 0 9-17 * * *", time(2026, 3, 10, 3, 0, 0)));
+        assertEquals(time(2026, 3, 11, 9, 0, 0), next("0 0 9-17 * * *", time(2026, 3, 10, 17, 0, 0)));
+    }
+
+    @Test
+    public void steps() {
+        assertEquals(time(2026, 3, 10, 10, 0, 15), next("*/15 * * * * *", time(2026, 3, 10, 10, 0, 7)));
+        assertEquals(time(2026, 3, 10, 10, 0, 45), next("5/20 * * * * *", time(2026, 3, 10, 10, 0, 26)));
+        assertEquals(time(2026, 3, 10, 10, 1, 5), next("5/20 * * * * *", time(2026, 3, 10, 10, 0, 45)));
+        assertEquals(time(2026, 3, 10, 13, 0, 0), next("0 0 9-17/4 * * *", time(2026, 3, 10, 10, 0, 0)));
+    }
+
+    @Test
+    public void lists() {
+        assertEquals(time(2026, 1, 15, 0, 0, 0), next("0 0 0 1,15 * *", time(2026, 1, 2, 0, 0, 0)));
+        assertEquals(time(2026, 2, 1, 0, 0, 0), next("0 0 0 1,15 * *", time(2026, 1, 15, 0, 0, 0)));
+    }
+
+    @Test
+    public void monthAndDayNames() {
+        assertEquals(time(2026, 7, 1, 0, 0, 0), next("0 0 0 1 JAN,jul *", time(2026, 2, 1, 0, 0, 0)));
+        // 2026-01-31 是周六
+        assertEquals(time(2026, 2, 2, 12, 0, 0), next("0 0 12 * * MON-FRI", time(2026, 1, 31, 23, 59, 59)));
+    }
+
+    @Test
+    public void sundayIsZeroOrSeven() {
+        // 2026-02-01 是周日
+        ZonedDateTime from = time(2026, 1, 31, 12, 0, 0);
+        assertEquals(time(2026, 2, 1, 0, 0, 0), next("0 0 0 * * 0", from));
+        assertEquals(time(2026, 2, 1, 0, 0, 0), next("0 0 0 * * 7", from));
+        assertEquals(time(2026, 2, 1, 0, 0, 0), next("0 0 0 * * SUN", from));
+    }
+
+    @Test
+    public void rollsOverIntoNextYear() {
+        assertEquals(time(2027, 1, 1, 0, 0, 0), next("0 0 0 1 1 *", time(2026, 6, 1, 0, 0, 0)));
+        assertEquals(time(2028, 2, 29, 0, 0, 0), next("0 0 0 29 2 ?", time(2026, 3, 1, 0, 0, 0)));
+    }
+
+    @Test
+    public void impossibleDateReturnsNull() {
+        assertNull(next("0 0 0 30 2 *", time(2026, 1, 1, 0, 0, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongFieldCount() {
+        CronExpression.parse("0 0 12 * *");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValueOutOfRange() {
+        CronExpression.parse("60 * * * * *");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownName() {
+        CronExpression.parse("0 0 0 1 FOO *");
+    }
+}
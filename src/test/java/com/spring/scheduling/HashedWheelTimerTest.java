@@ -0,0 +1,118 @@
+package com.spring.scheduling;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void createTimer() {
+        // 8 个格子、每格 5ms，一圈只有 40ms，较长的延迟需要转多圈
+        timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void stopTimer() {
+        timer.stop();
+    }
+
+    private void awaitNoPendingTimeouts() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (timer.pendingTimeouts() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void firesNotBeforeDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        long start = System.nanoTime();
+        Timeout timeout = timer.newTimeout(t -> {
+            firedAt[0] = System.nanoTime();
+            fired.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAt[0] - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(timeout.isExpired());
+        awaitNoPendingTimeouts();
+    }
+
+    @Test
+    public void delayLongerThanOneRoundFiresOnce() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        AtomicLong firedAt = new AtomicLong();
+        long start = System.nanoTime();
+        timer.newTimeout(t -> {
+            firedAt.set(System.nanoTime());
+            fired.incrementAndGet();
+        }, 130, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(300);
+        assertEquals(1, fired.get());
+        assertTrue(firedAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(130));
+        awaitNoPendingTimeouts();
+    }
+
+    @Test
+    public void cancelledTimeoutNeverFires() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        List<Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            timeouts.add(timer.newTimeout(t -> fired.incrementAndGet(), 500 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(10000, timer.pendingTimeouts());
+        for (Timeout timeout : timeouts) {
+            assertTrue(timeout.cancel());
+            assertTrue(timeout.isCancelled());
+            assertFalse(timeout.cancel());
+        }
+
+        awaitNoPendingTimeouts();
+        // 等到原定的触发时间之后
+        Thread.sleep(700);
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    public void cancelAfterExpireHasNoEffect() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        Timeout timeout = timer.newTimeout(t -> fired.countDown(), 1, TimeUnit.MILLISECONDS);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.isCancelled());
+    }
+
+    @Test
+    public void stopReturnsUnprocessedTimeoutsAndRejectsNewOnes() {
+        AtomicInteger fired = new AtomicInteger();
+        Timeout pending = timer.newTimeout(t -> fired.incrementAndGet(), 10, TimeUnit.SECONDS);
+
+        Set<Timeout> unprocessed = timer.stop();
+        assertTrue(unprocessed.contains(pending));
+        assertTrue(pending.isCancelled());
+        assertEquals(0, fired.get());
+
+        assertThrows(IllegalStateException.class,
+                () -> timer.newTimeout(t -> fired.incrementAndGet(), 1, TimeUnit.MILLISECONDS));
+    }
+}
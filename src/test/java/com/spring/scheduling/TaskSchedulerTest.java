@@ -0,0 +1,229 @@
+package com.spring.scheduling;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TaskSchedulerTest {
+
+    private final TaskScheduler scheduler = new TaskScheduler(4, 2, 64);
+
+    @After
+    public void closeScheduler() {
+        scheduler.close();
+    }
+
+    private ScheduledTask start(Object bean) {
+        List<ScheduledTask> tasks = scheduler.prepareScheduledMethods(bean, bean, "bean");
+        scheduler.start(tasks);
+        assertEquals(1, tasks.size());
+        return tasks.get(0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class FixedRateBean {
+        final AtomicInteger runs = new AtomicInteger();
+
+        @Scheduled(fixedRate = 20)
+        public void run() {
+            runs.incrementAndGet();
+        }
+    }
+
+    public static class FixedDelayBean {
+        final List<Long> starts = new CopyOnWriteArrayList<>();
+
+        @Scheduled(fixedDelay = 20)
+        public void run() {
+            starts.add(System.nanoTime());
+            sleep(30);
+        }
+    }
+
+    public static class SlowBean {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        void work() {
+            int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            sleep(60);
+            active.decrementAndGet();
+        }
+    }
+
+    public static class SlowSerialBean extends SlowBean {
+        @Scheduled(fixedRate = 10)
+        public void run() {
+            work();
+        }
+    }
+
+    public static class SlowConcurrentBean extends SlowBean {
+        @Scheduled(fixedRate = 10, concurrent = true)
+        public void run() {
+            work();
+        }
+    }
+
+    public static class FailingBean {
+        @Scheduled(fixedRate = 20)
+        public void run() {
+            throw new IllegalStateException("expected by test");
+        }
+    }
+
+    public static class InitialDelayBean {
+        volatile long firstRun;
+
+        @Scheduled(fixedRate = 1000, initialDelay = 100)
+        public void run() {
+            if (firstRun == 0) {
+                firstRun = System.nanoTime();
+            }
+        }
+    }
+
+    public static class InheritedBean extends FixedRateBean {
+    }
+
+    public static class AmbiguousBean {
+        @Scheduled(fixedRate = 10, fixedDelay = 10)
+        public void run() {
+        }
+    }
+
+    public static class ParameterBean {
+        @Scheduled(fixedRate = 10)
+        public void run(String value) {
+        }
+    }
+
+    @Test
+    public void fixedRateRunsRepeatedly() {
+        FixedRateBean bean = new FixedRateBean();
+        ScheduledTask task = start(bean);
+        sleep(300);
+        int runs = bean.runs.get();
+        // 理论上约 15 次，计时抖动留出余量
+        assertTrue("runs=" + runs, runs >= 8 && runs <= 20);
+        assertEquals(ScheduledTask.Type.FIXED_RATE, task.getType());
+        assertEquals("bean.run", task.getName());
+    }
+
+    @Test
+    public void fixedDelayWaitsForPreviousRun() {
+        FixedDelayBean bean = new FixedDelayBean();
+        start(bean);
+        sleep(300);
+        List<Long> starts = bean.starts;
+        assertTrue(starts.size() >= 3);
+        for (int i = 1; i < starts.size(); i++) {
+            // 每次执行 30ms，结束后再等 20ms
+            assertTrue(starts.get(i) - starts.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    public void slowNonConcurrentTaskIsSkipped() {
+        SlowSerialBean bean = new SlowSerialBean();
+        ScheduledTask task = start(bean);
+        sleep(300);
+        assertTrue(task.getSkippedCount() > 0);
+        assertEquals(0, task.getOverlappedCount());
+        assertEquals(1, bean.maxActive.get());
+    }
+
+    @Test
+    public void slowConcurrentTaskOverlaps() {
+        SlowConcurrentBean bean = new SlowConcurrentBean();
+        ScheduledTask task = start(bean);
+        sleep(300);
+        assertTrue(task.getOverlappedCount() > 0);
+        assertTrue(bean.maxActive.get() > 1);
+    }
+
+    @Test
+    public void failuresAreCountedAndTaskKeepsRunning() {
+        ScheduledTask task = start(new FailingBean());
+        sleep(200);
+        assertTrue(task.getFailureCount() >= 3);
+        assertEquals(0, task.getExecutionCount());
+    }
+
+    @Test
+    public void initialDelayIsHonored() {
+        long start = System.nanoTime();
+        InitialDelayBean bean = new InitialDelayBean();
+        start(bean);
+        sleep(300);
+        assertTrue(bean.firstRun - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void inheritedScheduledMethodsAreFound() {
+        assertTrue(TaskScheduler.hasScheduledMethods(InheritedBean.class));
+        InheritedBean bean = new InheritedBean();
+        start(bean);
+        sleep(100);
+        assertTrue(bean.runs.get() > 0);
+    }
+
+    @Test
+    public void invalidMethodsAreRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.prepareScheduledMethods(new AmbiguousBean(), new AmbiguousBean(), "bean"));
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.prepareScheduledMethods(new ParameterBean(), new ParameterBean(), "bean"));
+        Object badCron = new Object() {
+            @Scheduled(cron = "not a cron")
+            public void run() {
+            }
+        };
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduler.prepareScheduledMethods(badCron, badCron, "bean"));
+    }
+
+    @Test
+    public void cancelledTasksStopRunning() {
+        FixedRateBean bean = new FixedRateBean();
+        start(bean);
+        sleep(100);
+        assertEquals(1, scheduler.cancelScheduledTasks("bean"));
+        assertTrue(scheduler.getScheduledTasks().isEmpty());
+        sleep(50);
+        int runs = bean.runs.get();
+        sleep(200);
+        assertEquals(runs, bean.runs.get());
+        assertEquals(0, scheduler.getPendingTimeouts());
+    }
+
+    @Test
+    public void noRunsAfterClose() {
+        FixedRateBean bean = new FixedRateBean();
+        ScheduledTask task = start(bean);
+        sleep(100);
+        scheduler.close();
+        assertTrue(task.isCancelled());
+        // 关闭前已交给线程池的那一次可能仍在执行
+        sleep(50);
+        int runs = bean.runs.get();
+        sleep(200);
+        assertEquals(runs, bean.runs.get());
+    }
+}